@@ -0,0 +1,66 @@
+package com.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Groups requests into endpoints for the report: the method plus the path without its query string,
+ * with path variables collapsed according to templates such as {@code GET /api/groceries/name/*}, in
+ * which {@code *} matches one segment. The method is optional; a template without one matches any.
+ */
+public class EndpointNames {
+
+    /** Routes of mdb-spring-boot with path variables. */
+    public static final List<String> DEFAULT_TEMPLATES = List.of(
+            "GET /api/groceries/name/*",
+            "GET /api/groceries/category/*",
+            "DELETE /api/groceries/*",
+            "POST /exports/*/resume",
+            "GET /exports/*",
+            "/admin/profiling/*");
+
+    private record Template(String method, String[] segments) {
+    }
+
+    private final List<Template> templates = new ArrayList<>();
+
+    /**
+     * @param templates tried in order, so more specific ones go first
+     */
+    public EndpointNames(List<String> templates) {
+        for (String template : templates) {
+            int space = template.indexOf(' ');
+            this.templates.add(space > 0
+                    ? new Template(template.substring(0, space).toUpperCase(), segments(template.substring(space + 1).trim()))
+                    : new Template(null, segments(template.trim())));
+        }
+    }
+
+    public String name(String method, String path) {
+        int query = path.indexOf('?');
+        String[] segments = segments(query >= 0 ? path.substring(0, query) : path);
+        for (Template template : templates) {
+            if ((template.method() == null || template.method().equals(method)) && matches(template.segments(), segments)) {
+                return method + " /" + String.join("/", template.segments());
+            }
+        }
+        return method + " /" + String.join("/", segments);
+    }
+
+    private static boolean matches(String[] template, String[] segments) {
+        if (template.length != segments.length) {
+            return false;
+        }
+        for (int i = 0; i < template.length; i++) {
+            if (!"*".equals(template[i]) && !template[i].equals(segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of one endpoint, in microseconds.
+ *
+ * {@link #latency} is measured from when the request was meant to be sent according to the schedule,
+ * so time spent queued behind slow requests (in the client or the server) counts: this is what
+ * corrects for coordinated omission. {@link #serviceTime} is measured from when it was actually sent,
+ * which is what a naive load generator reports, and is kept for comparison.
+ */
+public class EndpointStats {
+
+    private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    final String endpoint;
+    final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+    final Histogram serviceTime = new ConcurrentHistogram(MAX_MICROS, 3);
+    final LongAdder errors = new LongAdder();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long intendedNanos, long sentNanos, long doneNanos, boolean error) {
+        latency.recordValue(Math.min(MAX_MICROS, (doneNanos - intendedNanos) / 1000));
+        serviceTime.recordValue(Math.min(MAX_MICROS, (doneNanos - sentNanos) / 1000));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+}
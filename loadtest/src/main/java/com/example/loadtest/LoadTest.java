@@ -0,0 +1,217 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a recorded request log against the service and reports latency percentiles per endpoint.
+ * Exits with status 2 when a {@code --max-p99-ms} or {@code --max-error-rate} threshold is exceeded,
+ * so it can gate a release.
+ */
+public class LoadTest {
+
+    private static final String USAGE = """
+            Usage: java -jar loadtest.jar --recording requests.jsonl [options]
+
+              --target URL            service to replay against (default http://localhost:8080)
+              --model open|closed     open: send on a schedule regardless of completions (default)
+                                      closed: --concurrency workers, each waits for its previous response
+              --speedup X             open model: replay the recorded timing X times faster (default 1)
+              --rate N                requests per second instead of the recorded timing; in the closed
+                                      model paces the workers (default: unpaced)
+              --concurrency N         closed model workers (default 8)
+              --loops N               replay the recording N times (default 1)
+              --warmup-s N            leave requests scheduled in the first N seconds out of the report
+              --timeout-s N           per-request timeout (default 30)
+              --max-in-flight N       open model: cap on outstanding requests (default 1024)
+              --user NAME:PASSWORD    credentials to log in with, repeatable (default admin:password);
+                                      requests recorded as other users are sent as the first one
+              --endpoint TEMPLATE     group paths in the report, e.g. "GET /api/items/*", repeatable
+              --max-p99-ms N          fail if any endpoint's p99 exceeds N ms
+              --max-error-rate F      fail if more than this fraction of requests fail (e.g. 0.01)
+              --hgrm-dir DIR          also write each endpoint's percentile distribution to DIR
+            """;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, List<String>> options = parse(args);
+        if (options.containsKey("help") || !options.containsKey("recording")) {
+            System.out.print(USAGE);
+            System.exit(options.containsKey("help") ? 0 : 1);
+        }
+
+        URI target = URI.create(option(options, "target", "http://localhost:8080"));
+        String model = option(options, "model", "open");
+        double speedup = Double.parseDouble(option(options, "speedup", "1"));
+        double rate = Double.parseDouble(option(options, "rate", "0"));
+        int concurrency = Integer.parseInt(option(options, "concurrency", "8"));
+        int loops = Integer.parseInt(option(options, "loops", "1"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option(options, "warmup-s", "0")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(option(options, "timeout-s", "30")));
+        int maxInFlight = Integer.parseInt(option(options, "max-in-flight", "1024"));
+
+        Map<String, String> credentials = new LinkedHashMap<>();
+        for (String user : options.getOrDefault("user", List.of("admin:password"))) {
+            int colon = user.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("--user must be NAME:PASSWORD");
+            }
+            credentials.put(user.substring(0, colon), user.substring(colon + 1));
+        }
+        List<String> templates = new ArrayList<>(options.getOrDefault("endpoint", List.of()));
+        templates.addAll(EndpointNames.DEFAULT_TEMPLATES);
+
+        List<RecordedRequest> recording = new RecordingReader().read(Path.of(option(options, "recording", null)));
+        if (recording.isEmpty()) {
+            throw new IllegalArgumentException("The recording is empty");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        TokenProvider tokens = new TokenProvider(client, target, credentials, timeout);
+        Replayer replayer = new Replayer(client, target, recording, tokens, new EndpointNames(templates), timeout, warmup);
+
+        System.out.printf("Replaying %d requests x %d against %s, %s model%n", recording.size(), loops, target, model);
+        long start = System.nanoTime();
+        switch (model) {
+            case "open" -> replayer.runOpen(loops, speedup, rate, maxInFlight);
+            case "closed" -> replayer.runClosed(loops, concurrency, rate);
+            default -> throw new IllegalArgumentException("--model must be open or closed");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        boolean corrected = "open".equals(model) || rate > 0;
+        report(replayer, seconds, corrected, System.out);
+        if (options.containsKey("hgrm-dir")) {
+            writeDistributions(replayer, Path.of(option(options, "hgrm-dir", null)));
+        }
+        boolean passed = check(replayer, options);
+        System.exit(passed ? 0 : 2);
+    }
+
+    private static void report(Replayer replayer, double seconds, boolean corrected, PrintStream out) {
+        List<EndpointStats> endpoints = new ArrayList<>(replayer.stats().values());
+        endpoints.removeIf(stats -> stats.count() == 0);
+        endpoints.sort(Comparator.comparingLong(EndpointStats::count).reversed());
+
+        out.printf("%nSent %d requests in %.1fs (%.1f/s)%n", replayer.sent(), seconds, replayer.sent() / seconds);
+        out.println(corrected
+                ? "Latency from the scheduled send time (corrected for coordinated omission), in ms:"
+                : "Unpaced closed model: latency is service time, not corrected for coordinated omission, in ms:");
+        out.printf("%-40s %8s %7s %8s %8s %8s %8s %8s | %12s%n",
+                "endpoint", "count", "errors", "p50", "p90", "p99", "p99.9", "max", "p99 service");
+
+        EndpointStats all = new EndpointStats("all");
+        for (EndpointStats stats : endpoints) {
+            row(stats, out);
+            all.latency.add(stats.latency);
+            all.serviceTime.add(stats.serviceTime);
+            all.errors.add(stats.errors.sum());
+        }
+        row(all, out);
+
+        Map<String, Long> failures = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> status : replayer.statuses().entrySet()) {
+            String key = status.getKey();
+            String code = key.substring(key.lastIndexOf(' ') + 1);
+            if (!code.startsWith("2") && !code.startsWith("3")) {
+                failures.put(key, status.getValue().sum());
+            }
+        }
+        if (!failures.isEmpty()) {
+            out.println("\nFailed responses (status 0 = no response):");
+            failures.forEach((key, count) -> out.printf("  %-48s %d%n", key, count));
+        }
+    }
+
+    private static void row(EndpointStats stats, PrintStream out) {
+        Histogram h = stats.latency;
+        out.printf("%-40s %8d %7d %8.1f %8.1f %8.1f %8.1f %8.1f | %12.1f%n", stats.endpoint, h.getTotalCount(),
+                stats.errors.sum(), ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()),
+                ms(stats.serviceTime.getValueAtPercentile(99)));
+    }
+
+    private static boolean check(Replayer replayer, Map<String, List<String>> options) {
+        boolean passed = true;
+        if (options.containsKey("max-p99-ms")) {
+            double limit = Double.parseDouble(option(options, "max-p99-ms", null));
+            for (EndpointStats stats : replayer.stats().values()) {
+                double p99 = ms(stats.latency.getValueAtPercentile(99));
+                if (stats.count() > 0 && p99 > limit) {
+                    System.out.printf("FAIL: %s p99 %.1fms > %.1fms%n", stats.endpoint, p99, limit);
+                    passed = false;
+                }
+            }
+        }
+        if (options.containsKey("max-error-rate")) {
+            double limit = Double.parseDouble(option(options, "max-error-rate", null));
+            long count = 0;
+            long errors = 0;
+            for (EndpointStats stats : replayer.stats().values()) {
+                count += stats.count();
+                errors += stats.errors.sum();
+            }
+            double errorRate = count == 0 ? 0 : (double) errors / count;
+            if (errorRate > limit) {
+                System.out.printf("FAIL: error rate %.4f > %.4f%n", errorRate, limit);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    private static void writeDistributions(Replayer replayer, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (EndpointStats stats : replayer.stats().values()) {
+            if (stats.count() == 0) {
+                continue;
+            }
+            String file = stats.endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(file)))) {
+                // Recorded in microseconds, written in milliseconds
+                stats.latency.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String option(Map<String, List<String>> options, String name, String defaultValue) {
+        List<String> values = options.get(name);
+        return values != null ? values.get(values.size() - 1) : defaultValue;
+    }
+
+    private static Map<String, List<String>> parse(String[] args) {
+        Map<String, List<String>> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            String value = "help".equals(name) ? "" : (i + 1 < args.length ? args[++i] : null);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+            options.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        return options;
+    }
+}
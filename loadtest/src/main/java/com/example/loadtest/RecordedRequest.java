@@ -0,0 +1,13 @@
+package com.example.loadtest;
+
+import java.util.Map;
+
+/**
+ * One request from a recording.
+ *
+ * @param offsetMillis time since the first request of the recording
+ * @param user         username the request was made as, or null if it was not authenticated
+ */
+public record RecordedRequest(long offsetMillis, String method, String path, Map<String, String> headers,
+                              String body, String user) {
+}
@@ -0,0 +1,175 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a recording: one JSON object per line with
+ * <ul>
+ *   <li>{@code method} (default GET) and {@code path} (with query string) or an absolute {@code url}</li>
+ *   <li>{@code timestamp}: epoch millis, epoch seconds, ISO-8601 or {@code yyyy-MM-dd HH:mm:ss[.SSS]} (UTC)</li>
+ *   <li>{@code headers}: object of header values, optional</li>
+ *   <li>{@code body}: string or JSON value, optional</li>
+ *   <li>{@code user}: who made the request, optional; otherwise taken from the recorded bearer token</li>
+ * </ul>
+ * Blank lines and lines starting with {@code #} are skipped. Requests are returned in timestamp order.
+ */
+public class RecordingReader {
+
+    private static final DateTimeFormatter LOG_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSS]");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public List<RecordedRequest> read(Path file) throws IOException {
+        List<long[]> times = new ArrayList<>();
+        List<RecordedRequest> parsed = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = mapper.readTree(line);
+                } catch (IOException e) {
+                    throw new IOException(file + ":" + lineNumber + ": not valid JSON: " + e.getMessage(), e);
+                }
+                Long timestamp = timestamp(node.get("timestamp"));
+                times.add(new long[] { timestamp != null ? timestamp : Long.MIN_VALUE, parsed.size() });
+                parsed.add(request(node, file + ":" + lineNumber));
+            }
+        }
+
+        // Requests without a timestamp keep their position, right after the previous timestamped one
+        long previous = Long.MIN_VALUE;
+        for (long[] time : times) {
+            if (time[0] == Long.MIN_VALUE) {
+                time[0] = previous;
+            }
+            previous = time[0];
+        }
+        long first = times.stream().mapToLong(t -> t[0]).filter(t -> t != Long.MIN_VALUE).min().orElse(0);
+        times.sort(Comparator.comparingLong(t -> t[0]));
+
+        List<RecordedRequest> result = new ArrayList<>(parsed.size());
+        for (long[] time : times) {
+            RecordedRequest r = parsed.get((int) time[1]);
+            long offset = time[0] == Long.MIN_VALUE ? 0 : time[0] - first;
+            result.add(new RecordedRequest(offset, r.method(), r.path(), r.headers(), r.body(), r.user()));
+        }
+        return result;
+    }
+
+    private RecordedRequest request(JsonNode node, String location) throws IOException {
+        String path = text(node, "path");
+        if (path == null && text(node, "url") != null) {
+            URI url = URI.create(text(node, "url"));
+            path = url.getRawPath() + (url.getRawQuery() != null ? "?" + url.getRawQuery() : "");
+        }
+        if (path == null || !path.startsWith("/")) {
+            throw new IOException(location + ": missing path or url");
+        }
+        String method = text(node, "method");
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        JsonNode headerNode = node.get("headers");
+        if (headerNode != null && headerNode.isObject()) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = headerNode.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> header = it.next();
+                JsonNode value = header.getValue();
+                headers.put(header.getKey(), value.isArray() && !value.isEmpty() ? value.get(0).asText() : value.asText());
+            }
+        }
+
+        JsonNode bodyNode = node.get("body");
+        String body = bodyNode == null || bodyNode.isNull() ? null
+                : bodyNode.isTextual() ? bodyNode.asText() : mapper.writeValueAsString(bodyNode);
+
+        String user = text(node, "user");
+        if (user == null || "-".equals(user)) {
+            user = tokenUser(header(headers, "Authorization"));
+        }
+        return new RecordedRequest(0, method != null ? method.toUpperCase() : "GET", path, headers, body, user);
+    }
+
+    // The username claim of a recorded JWT; the signature does not matter, the token is replaced anyway
+    private String tokenUser(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String[] parts = authorization.substring(7).split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            JsonNode claims = mapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            return text(claims, "username");
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static String header(Map<String, String> headers, String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Long timestamp(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            // Anything before ~1973 in millis is taken to be seconds
+            return node.isIntegralNumber() && node.asLong() > 100_000_000_000L
+                    ? node.asLong() : Math.round(node.asDouble() * 1000);
+        }
+        String text = node.asText();
+        try {
+            return Instant.parse(text).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // not an instant, try the other formats
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // not an offset date-time either
+        }
+        try {
+            return LocalDateTime.parse(text, LOG_TIMESTAMP).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unrecognized timestamp: " + text);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a recording against the target, either
+ * <ul>
+ *   <li>open model: requests are sent on a schedule, the recorded timing divided by the speed-up or a
+ *   fixed rate, whether or not earlier requests have completed; or</li>
+ *   <li>closed model: a fixed number of workers each send their next request when the previous one
+ *   completes, optionally paced to a total rate.</li>
+ * </ul>
+ * Whenever there is a schedule, latency is measured from the scheduled time (see {@link EndpointStats}).
+ */
+public class Replayer {
+
+    // Headers the HTTP client sets itself, or that must not be replayed
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "authorization", "host", "content-length", "connection", "transfer-encoding", "expect", "upgrade",
+            "keep-alive", "te", "trailer", "proxy-connection");
+
+    private record Prepared(HttpRequest request, EndpointStats stats, long offsetMillis) {
+    }
+
+    private final HttpClient client;
+    private final long warmupNanos;
+    private final List<Prepared> requests = new ArrayList<>();
+    private final ConcurrentMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+
+    private long measureFrom;
+
+    public Replayer(HttpClient client, URI target, List<RecordedRequest> recording, TokenProvider tokens,
+                    EndpointNames names, Duration timeout, Duration warmup) {
+        this.client = client;
+        this.warmupNanos = warmup.toNanos();
+        for (RecordedRequest recorded : recording) {
+            String endpoint = names.name(recorded.method(), recorded.path());
+            requests.add(new Prepared(build(target, recorded, tokens, timeout),
+                    stats.computeIfAbsent(endpoint, EndpointStats::new), recorded.offsetMillis()));
+        }
+    }
+
+    /**
+     * @param speedup applied to the recorded timing
+     * @param rate    requests per second; when positive the recorded timing is ignored
+     */
+    public void runOpen(int loops, double speedup, double rate, int maxInFlight) throws InterruptedException {
+        long last = requests.get(requests.size() - 1).offsetMillis();
+        // One loop lasts as long as the recording plus one average gap, so loops don't overlap
+        double loopMillis = requests.size() > 1 ? last + (double) last / (requests.size() - 1) : 0;
+        if (rate <= 0 && loops > 1 && loopMillis == 0) {
+            throw new IllegalArgumentException("The recording has no timing; pass --rate");
+        }
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = begin();
+        long sequence = 0;
+        for (int loop = 0; loop < loops; loop++) {
+            for (Prepared prepared : requests) {
+                long intended = rate > 0
+                        ? start + (long) (sequence * 1e9 / rate)
+                        : start + (long) ((loop * loopMillis + prepared.offsetMillis()) * 1e6 / speedup);
+                sequence++;
+                sleepUntil(intended);
+                // Waiting here when saturated delays the send, and the delay is charged to the request
+                inFlight.acquire();
+                long sentAt = System.nanoTime();
+                sent.increment();
+                client.sendAsync(prepared.request(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            record(prepared, intended, sentAt, response, error);
+                            inFlight.release();
+                        });
+            }
+        }
+        inFlight.acquire(maxInFlight);
+    }
+
+    /**
+     * @param rate total requests per second across workers; zero or less sends back to back, in which
+     *             case there is no schedule and latency equals service time
+     */
+    public void runClosed(int loops, int concurrency, double rate) throws InterruptedException {
+        long total = (long) loops * requests.size();
+        AtomicLong next = new AtomicLong();
+        long interval = rate > 0 ? (long) (concurrency * 1e9 / rate) : 0;
+        long start = begin();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            long workerStart = start + (long) w * interval / concurrency;
+            workers.add(Thread.ofPlatform().name("replay-" + w).start(() -> {
+                long k = 0;
+                for (long seq = next.getAndIncrement(); seq < total; seq = next.getAndIncrement()) {
+                    Prepared prepared = requests.get((int) (seq % requests.size()));
+                    long intended = workerStart + k++ * interval;
+                    sleepUntil(intended);
+                    long sentAt = System.nanoTime();
+                    sent.increment();
+                    try {
+                        HttpResponse<Void> response = client.send(prepared.request(), HttpResponse.BodyHandlers.discarding());
+                        record(prepared, interval > 0 ? intended : sentAt, sentAt, response, null);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        record(prepared, interval > 0 ? intended : sentAt, sentAt, null, e);
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    public Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * Responses per endpoint and status code; status 0 means the request failed without a response.
+     */
+    public Map<String, LongAdder> statuses() {
+        return statuses;
+    }
+
+    public long sent() {
+        return sent.sum();
+    }
+
+    private long begin() {
+        // Leave a moment for the threads to start before the first scheduled request
+        long start = System.nanoTime() + 50_000_000L;
+        measureFrom = start + warmupNanos;
+        return start;
+    }
+
+    private void record(Prepared prepared, long intended, long sentAt, HttpResponse<?> response, Throwable error) {
+        long done = System.nanoTime();
+        if (intended < measureFrom) {
+            return;
+        }
+        int status = response != null ? response.statusCode() : 0;
+        prepared.stats().record(intended, sentAt, done, error != null || status >= 400);
+        statuses.computeIfAbsent(prepared.stats().endpoint + " " + status, k -> new LongAdder()).increment();
+    }
+
+    private static HttpRequest build(URI target, RecordedRequest recorded, TokenProvider tokens, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target.resolve(recorded.path())).timeout(timeout);
+        for (Map.Entry<String, String> header : recorded.headers().entrySet()) {
+            if (!SKIPPED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        String token = tokens.tokenFor(recorded.user());
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (recorded.body() != null) {
+            if (RecordingReader.header(recorded.headers(), "Content-Type") == null) {
+                builder.header("Content-Type", "application/json");
+            }
+            builder.method(recorded.method(), HttpRequest.BodyPublishers.ofString(recorded.body()));
+        } else {
+            builder.method(recorded.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        for (long remaining = nanoTime - System.nanoTime(); remaining > 0; remaining = nanoTime - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
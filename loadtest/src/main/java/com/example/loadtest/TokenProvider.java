@@ -0,0 +1,57 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fresh bearer tokens for the replay, obtained by logging in through {@code /api/login} before the run
+ * starts. Recorded tokens are never sent: requests made as a user with credentials get that user's
+ * token, requests made as anyone else get the first user's.
+ */
+public class TokenProvider {
+
+    private final Map<String, String> tokens = new LinkedHashMap<>();
+
+    /**
+     * @param credentials username to password, in order of preference for unknown users
+     */
+    public TokenProvider(HttpClient client, URI target, Map<String, String> credentials, Duration timeout)
+            throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        for (Map.Entry<String, String> user : credentials.entrySet()) {
+            String body = mapper.writeValueAsString(Map.of("username", user.getKey(), "password", user.getValue()));
+            HttpRequest login = HttpRequest.newBuilder(target.resolve("/api/login"))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+            JsonNode token = response.statusCode() == 200 ? mapper.readTree(response.body()).get("token") : null;
+            if (token == null) {
+                throw new IOException("Login failed for " + user.getKey() + ": HTTP " + response.statusCode()
+                        + " " + response.body());
+            }
+            tokens.put(user.getKey(), token.asText());
+        }
+    }
+
+    /**
+     * Token to send for a request recorded as {@code user}, or null if it was not authenticated.
+     */
+    public String tokenFor(String user) {
+        if (user == null || tokens.isEmpty()) {
+            return null;
+        }
+        String token = tokens.get(user);
+        return token != null ? token : tokens.values().iterator().next();
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 import com.example.mdbspringboot.model.GroceryItem;
@@ -16,8 +17,12 @@ import com.example.mdbspringboot.repository.ItemRepository;
 
 @SpringBootApplication
 @EnableMongoRepositories
+@EnableMongoAuditing
 public class MdbSpringBootApplication implements CommandLineRunner{
 	
+	// Demo items belong to the built-in admin user (see LoginController)
+	static final String SEED_OWNER = "admin";
+	
 	@Autowired
 	ItemRepository groceryItemRepo;
 	
@@ -32,8 +37,8 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 	
 	public void run(String... args) {
 		
-		// Clean up any previous data
-		groceryItemRepo.deleteAll(); // Doesn't delete the collection
+		// Clean up the demo items of a previous run, leaving other users' items alone
+		groceryItemRepo.deleteByOwner(SEED_OWNER);
 		
 		System.out.println("-------------CREATE GROCERY ITEMS-------------------------------\n");
 		
@@ -61,7 +66,7 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 		
 		System.out.println("\n----------DELETE A GROCERY ITEM----------------------------------\n");
 		
-		deleteGroceryItem("Kodo Millet");
+		deleteGroceryItem("XYZ Kodo Millet healthy");
 		
 		System.out.println("\n------------FINAL COUNT OF GROCERY ITEMS-------------------------\n");
 		
@@ -77,11 +82,13 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 	void createGroceryItems() {
 		System.out.println("Data creation started...");
 
-		groceryItemRepo.save(new GroceryItem("Whole Wheat Biscuit", "Whole Wheat Biscuit", 5, "snacks"));
-		groceryItemRepo.save(new GroceryItem("Kodo Millet", "XYZ Kodo Millet healthy", 2, "millets"));
-		groceryItemRepo.save(new GroceryItem("Dried Red Chilli", "Dried Whole Red Chilli", 2, "spices"));
-		groceryItemRepo.save(new GroceryItem("Pearl Millet", "Healthy Pearl Millet", 1, "millets"));
-		groceryItemRepo.save(new GroceryItem("Cheese Crackers", "Bonny Cheese Crackers Plain", 6, "snacks"));
+		// Ids are generated, so they are not guessable and cannot collide with other users' items
+
+		groceryItemRepo.save(owned(new GroceryItem(null, "Whole Wheat Biscuit", 5, "snacks")));
+		groceryItemRepo.save(owned(new GroceryItem(null, "XYZ Kodo Millet healthy", 2, "millets")));
+		groceryItemRepo.save(owned(new GroceryItem(null, "Dried Whole Red Chilli", 2, "spices")));
+		groceryItemRepo.save(owned(new GroceryItem(null, "Healthy Pearl Millet", 1, "millets")));
+		groceryItemRepo.save(owned(new GroceryItem(null, "Bonny Cheese Crackers Plain", 6, "snacks")));
 		
 		System.out.println("Data creation complete...");
 	}
@@ -90,7 +97,7 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 	// 1. Show all the data
 	 public void showAllGroceryItems() {
 		 
-		 itemList = groceryItemRepo.findAll();
+		 itemList = groceryItemRepo.findByOwner(SEED_OWNER);
 		 
 		 itemList.forEach(item -> System.out.println(getItemDetails(item)));
 	 }
@@ -98,21 +105,21 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 	 // 2. Get item by name
 	 public void getGroceryItemByName(String name) {
 		 System.out.println("Getting item by name: " + name);
-		 GroceryItem item = groceryItemRepo.findItemByName(name);
+		 GroceryItem item = groceryItemRepo.findItemByName(SEED_OWNER, name);
 		 System.out.println(getItemDetails(item));
 	 }
 	 
 	 // 3. Get name and items of a all items of a particular category
 	 public void getItemsByCategory(String category) {
 		 System.out.println("Getting items for the category " + category);
-		 List<GroceryItem> list = groceryItemRepo.findAll(category);
+		 List<GroceryItem> list = groceryItemRepo.findAll(SEED_OWNER, category);
 		 
 		 list.forEach(item -> System.out.println("Name: " + item.getName() + ", Quantity: " + item.getItemQuantity()));
 	 }
 	 
 	 // 4. Get count of documents in the collection
 	 public void findCountOfGroceryItems() {
-		 long count = groceryItemRepo.count();
+		 long count = groceryItemRepo.countByOwner(SEED_OWNER);
 		 System.out.println("Number of documents in the collection = " + count);
 	 }
 	 
@@ -123,7 +130,7 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 		 String newCategory = "munchies";
 		 
 		 // Find all the items with the category 
-		 List<GroceryItem> list = groceryItemRepo.findAll(category);
+		 List<GroceryItem> list = groceryItemRepo.findAll(SEED_OWNER, category);
 		 
 		 list.forEach(item -> {
 			 // Update the category in each document
@@ -141,14 +148,21 @@ public class MdbSpringBootApplication implements CommandLineRunner{
 	 // UPDATE APPROACH 2: Using MongoTemplate
 	 public void updateItemQuantity(String name, float newQuantity) {
 		 System.out.println("Updating quantity for " + name);
-		 customRepo.updateItemQuantity(name, newQuantity);
+		 customRepo.updateItemQuantity(SEED_OWNER, name, newQuantity);
 	 }
 	 
 	 // DELETE
-	 public void deleteGroceryItem(String id) {
-		 groceryItemRepo.deleteById(id);
-		 System.out.println("Item with id " + id + " deleted...");
+	 public void deleteGroceryItem(String name) {
+		 GroceryItem item = groceryItemRepo.findItemByName(SEED_OWNER, name);
+		 groceryItemRepo.deleteByIdAndOwner(item.getId(), SEED_OWNER);
+		 System.out.println("Item with id " + item.getId() + " deleted...");
 	 }
+	 
+	 GroceryItem owned(GroceryItem item) {
+		 item.setOwner(SEED_OWNER);
+		 return item;
+	 }
+	 
 	 // Print details in readable form
 	 
 	 public String getItemDetails(GroceryItem item) {
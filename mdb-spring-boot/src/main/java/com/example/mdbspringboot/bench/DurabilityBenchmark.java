@@ -0,0 +1,119 @@
+package com.example.mdbspringboot.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.mdbspringboot.util.DurabilityContext;
+import com.example.mdbspringboot.util.DurabilityTier;
+
+/**
+ * Measures insert throughput and latency for each {@link DurabilityTier}, using a scratch collection
+ * that is dropped afterwards. Inserts go through {@link MongoTemplate} with the tier set in
+ * {@link DurabilityContext}, the same write concern resolution endpoints annotated with
+ * {@code @Durability} get. Run with {@code --spring.profiles.active=durability-benchmark}; the
+ * application exits when done. Numbers only mean something against a replica set
+ * (see docker-compose.replicaset.yml), on a standalone server MAJORITY is the same as ACKNOWLEDGED.
+ */
+@Component
+@Profile("durability-benchmark")
+public class DurabilityBenchmark implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurabilityBenchmark.class);
+
+    private static final String COLLECTION = "durability_benchmark";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Value("${bench.durability.operations:5000}")
+    private int operations;
+
+    @Value("${bench.durability.threads:8}")
+    private int threads;
+
+    @Value("${bench.durability.tiers:FIRE_AND_FORGET,ACKNOWLEDGED,MAJORITY}")
+    private List<DurabilityTier> tiers;
+
+    @Override
+    public void run(String... args) throws Exception {
+        mongoTemplate.dropCollection(COLLECTION);
+        try {
+            logger.info(String.format("%-16s %10s %10s %10s %10s", "tier", "ops/s", "p50 ms", "p99 ms", "max ms"));
+            for (DurabilityTier tier : tiers) {
+                run(tier);
+            }
+        } finally {
+            mongoTemplate.dropCollection(COLLECTION);
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private void run(DurabilityTier tier) throws Exception {
+        long[] latencies = new long[operations];
+        AtomicInteger next = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = pool.submit(() -> {
+                    DurabilityContext.set(tier);
+                    try {
+                        for (int n = next.getAndIncrement(); n < operations; n = next.getAndIncrement()) {
+                            long t0 = System.nanoTime();
+                            mongoTemplate.insert(new Document("tier", tier.name()).append("seq", n)
+                                    .append("quantity", n % 100), COLLECTION);
+                            latencies[n] = System.nanoTime() - t0;
+                        }
+                    } finally {
+                        DurabilityContext.clear();
+                    }
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        logger.info(String.format("%-16s %10.0f %10.2f %10.2f %10.2f", tier,
+                operations / (elapsed / 1e9),
+                millis(latencies[(int) (operations * 0.50)]),
+                millis(latencies[Math.min(operations - 1, (int) (operations * 0.99))]),
+                millis(latencies[operations - 1])));
+
+        // Unacknowledged writes may still be in flight; let them land before the next tier is measured
+        if (tier == DurabilityTier.FIRE_AND_FORGET) {
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+        logger.debug("{}: {} documents in collection", tier, mongoTemplate.getCollection(COLLECTION).countDocuments());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.mdbspringboot.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.example.mdbspringboot.config.WebConfig;
+import com.example.mdbspringboot.model.GroceryItem;
+
+/**
+ * Compares the response formats on grocery lists of several sizes: bytes on the wire, raw and gzipped
+ * (the {@code server.compression} level), and CPU time per response to serialize and to serialize +
+ * compress. Goes through the application's own message converters, so the numbers include whatever
+ * the endpoints pay. Run with {@code --spring.profiles.active=format-benchmark}; the application exits when done.
+ */
+@Component
+@Profile("format-benchmark")
+public class ResponseFormatBenchmark implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseFormatBenchmark.class);
+
+    private static final MediaType[] FORMATS = {
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, WebConfig.APPLICATION_SMILE, WebConfig.APPLICATION_MSGPACK };
+
+    private static final String[] CATEGORIES = { "snacks", "millets", "spices", "dairy", "beverages", "munchies" };
+
+    // The converters the controllers actually use, including the binary ones added in WebConfig
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Value("${bench.format.list-sizes:10,100,1000,10000}")
+    private List<Integer> listSizes;
+
+    // Serialized items per format and list size; iterations = items / list size
+    @Value("${bench.format.items:500000}")
+    private int items;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void run(String... args) throws Exception {
+        logger.info(String.format("%8s %-28s %10s %10s %8s %12s %12s",
+                "items", "format", "bytes", "gzipped", "ratio", "cpu us", "cpu+gzip us"));
+        for (int size : listSizes) {
+            List<GroceryItem> list = groceryList(size);
+            long jsonBytes = 0;
+            for (MediaType format : FORMATS) {
+                HttpMessageConverter<Object> converter = converterFor(format);
+                byte[] body = write(converter, list, format, false);
+                byte[] gzipped = write(converter, list, format, true);
+                if (format == MediaType.APPLICATION_JSON) {
+                    jsonBytes = body.length;
+                }
+                int iterations = Math.max(20, items / size);
+                logger.info(String.format("%8d %-28s %10d %10d %7.0f%% %12.1f %12.1f", size, format,
+                        body.length, gzipped.length, 100.0 * body.length / jsonBytes,
+                        cpuMicros(converter, list, format, false, iterations),
+                        cpuMicros(converter, list, format, true, iterations)));
+            }
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    // Warm up first, then average thread CPU time (not wall time) over the iterations
+    private double cpuMicros(HttpMessageConverter<Object> converter, List<GroceryItem> list, MediaType format,
+                             boolean gzip, int iterations) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            write(converter, list, format, gzip);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            write(converter, list, format, gzip);
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1e3 / iterations;
+    }
+
+    private static byte[] write(HttpMessageConverter<Object> converter, List<GroceryItem> list, MediaType format,
+                                boolean gzip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream body = gzip ? new GZIPOutputStream(bytes) : bytes;
+        HttpHeaders headers = new HttpHeaders();
+        converter.write(list, format, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        body.close();
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> converterFor(MediaType format) {
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (converter.canWrite(List.class, format)) {
+                return (HttpMessageConverter<Object>) converter;
+            }
+        }
+        throw new IllegalStateException("No converter for " + format);
+    }
+
+    // Shaped like real lists: a handful of categories, names of a few words, small quantities
+    private static List<GroceryItem> groceryList(int size) {
+        List<GroceryItem> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            GroceryItem item = new GroceryItem(Integer.toHexString(0x6a000000 + i * 7919) + "0000000000000000",
+                    "Organic Whole Wheat Biscuit " + i, i % 12 + 1, CATEGORIES[i % CATEGORIES.length]);
+            item.setOwner("admin");
+            list.add(item);
+        }
+        return list;
+    }
+}
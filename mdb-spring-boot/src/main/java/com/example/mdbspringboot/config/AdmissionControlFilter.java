@@ -0,0 +1,168 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.AdaptiveConcurrencyLimit;
+import com.example.mdbspringboot.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control, placed right after {@link JwtFilter} so the user is known.
+ *
+ * A request must pass, in order:
+ * <ol>
+ *   <li>the caller's token bucket, keyed on the JWT {@code username} (or the remote address when anonymous)</li>
+ *   <li>the bulkhead for its endpoint class: expensive endpoints and cheap ones have separate limits</li>
+ *   <li>the adaptive concurrency limit, which shrinks while Mongo latency is above target</li>
+ * </ol>
+ * Rejected requests get 429 with {@code Retry-After} and are counted per bucket in
+ * {@code admission.rejected}.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_METRIC = "admission.rejected";
+
+    // Swept off the request path: buckets idle for longer than IDLE_EVICTION_NANOS are dropped, then the
+    // least recently used ones while more than MAX_TRACKED_USERS remain
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int MAX_TRACKED_USERS = 10_000;
+    private static final long SWEEP_INTERVAL_SECONDS = 30;
+
+    private final double burst;
+    private final double ratePerSecond;
+    private final List<String> expensivePaths;
+    private final Semaphore expensiveBulkhead;
+    private final Semaphore cheapBulkhead;
+    private final AdaptiveConcurrencyLimit adaptiveLimit;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "admission-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Counter rateLimited;
+    private final Counter expensiveRejected;
+    private final Counter cheapRejected;
+    private final Counter adaptiveRejected;
+
+    public AdmissionControlFilter(double ratePerSecond, double burst, List<String> expensivePaths,
+                                  int expensiveLimit, int cheapLimit,
+                                  AdaptiveConcurrencyLimit adaptiveLimit, MeterRegistry registry) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.expensivePaths = expensivePaths;
+        this.expensiveBulkhead = new Semaphore(expensiveLimit);
+        this.cheapBulkhead = new Semaphore(cheapLimit);
+        this.adaptiveLimit = adaptiveLimit;
+
+        this.rateLimited = registry.counter(REJECTED_METRIC, "bucket", "rate-limit");
+        this.expensiveRejected = registry.counter(REJECTED_METRIC, "bucket", "expensive");
+        this.cheapRejected = registry.counter(REJECTED_METRIC, "bucket", "cheap");
+        this.adaptiveRejected = registry.counter(REJECTED_METRIC, "bucket", "adaptive");
+        registry.gauge("admission.adaptive.limit", adaptiveLimit, AdaptiveConcurrencyLimit::getLimit);
+        registry.gauge("admission.adaptive.in-flight", adaptiveLimit, AdaptiveConcurrencyLimit::getInFlight);
+        registry.gauge("admission.tracked-callers", buckets, Map::size);
+
+        sweeper.scheduleWithFixedDelay(this::evictBuckets, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        // 放行 OPTIONS 请求
+        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = bucketFor(request).tryAcquire();
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(response, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+            return;
+        }
+
+        boolean expensive = isExpensive(request.getRequestURI());
+        Semaphore bulkhead = expensive ? expensiveBulkhead : cheapBulkhead;
+        if (!bulkhead.tryAcquire()) {
+            (expensive ? expensiveRejected : cheapRejected).increment();
+            reject(response, 1);
+            return;
+        }
+        try {
+            if (!adaptiveLimit.tryAcquire()) {
+                adaptiveRejected.increment();
+                reject(response, 1);
+                return;
+            }
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                adaptiveLimit.release();
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private TokenBucket bucketFor(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String key = auth != null && auth.getPrincipal() instanceof String username
+                ? "user:" + username
+                : "ip:" + request.getRemoteAddr();
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, ratePerSecond));
+    }
+
+    // A dropped caller gets a full bucket on its next request, so this only ever loosens the limit briefly
+    private void evictBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> now - bucket.lastUsedNanos() > IDLE_EVICTION_NANOS);
+
+        int excess = buckets.size() - MAX_TRACKED_USERS;
+        if (excess > 0) {
+            List<Map.Entry<String, TokenBucket>> entries = new ArrayList<>(buckets.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsedNanos() - now));
+            for (Map.Entry<String, TokenBucket> eldest : entries.subList(0, excess)) {
+                buckets.remove(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    private boolean isExpensive(String path) {
+        for (String prefix : expensivePaths) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.sendError(429, "Too Many Requests");
+    }
+}
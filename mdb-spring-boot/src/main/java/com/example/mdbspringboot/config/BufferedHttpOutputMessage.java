@@ -0,0 +1,75 @@
+package com.example.mdbspringboot.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Holds back the first {@code limit} bytes of a response body. A body that fits is sent with a
+ * Content-Length, which is what lets Tomcat skip compressing responses under
+ * {@code server.compression.min-response-size}; a larger body is streamed (chunked) as before.
+ */
+class BufferedHttpOutputMessage implements HttpOutputMessage {
+
+    private final HttpOutputMessage target;
+    private final int limit;
+    private final ByteArrayOutputStream buffer;
+    private OutputStream overflow;
+
+    private final OutputStream body = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (overflow == null && buffer.size() + len > limit) {
+                overflow = target.getBody();
+                buffer.writeTo(overflow);
+            }
+            if (overflow != null) {
+                overflow.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Flushing would commit the response before its length is known
+            if (overflow != null) {
+                overflow.flush();
+            }
+        }
+    };
+
+    BufferedHttpOutputMessage(HttpOutputMessage target, int limit) {
+        this.target = target;
+        this.limit = limit;
+        this.buffer = new ByteArrayOutputStream(Math.min(limit, 1024));
+    }
+
+    @Override
+    public OutputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return target.getHeaders();
+    }
+
+    /**
+     * Sends what is still buffered; must be called once the body is complete.
+     */
+    void finish() throws IOException {
+        if (overflow == null) {
+            target.getHeaders().setContentLength(buffer.size());
+            buffer.writeTo(target.getBody());
+        }
+    }
+}
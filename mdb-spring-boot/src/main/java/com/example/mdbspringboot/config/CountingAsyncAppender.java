@@ -0,0 +1,40 @@
+package com.example.mdbspringboot.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Async appender that counts the events it does not deliver: those discarded because the queue is
+ * above the discarding threshold (TRACE/DEBUG/INFO only) and those dropped because the queue is full
+ * with {@code neverBlock} set. Counts are approximate when many threads log at the same time.
+ * Configured in logback-spring.xml; the counters are exposed as metrics by {@link LoggingConfig}.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining < getDiscardingThreshold() && isDiscardable(event)) {
+            DISCARDED.increment();
+            return;
+        }
+        if (remaining == 0 && isNeverBlock()) {
+            DROPPED.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    public static long getDiscarded() {
+        return DISCARDED.sum();
+    }
+
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+}
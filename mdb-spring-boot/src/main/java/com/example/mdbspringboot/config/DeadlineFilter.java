@@ -0,0 +1,96 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts the request deadline. The budget comes from the {@value #HEADER} header (milliseconds),
+ * capped at {@code maxMs}, or from the per-endpoint default whose path prefix matches the request.
+ * A header that is not a positive number is rejected with 400.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private final long defaultMs;
+    private final long maxMs;
+    private final Map<String, Long> endpointDefaults;
+
+    /**
+     * @param endpoints comma separated {@code pathPrefix=ms} pairs, e.g. {@code /collection-data=15000}
+     */
+    public DeadlineFilter(long defaultMs, long maxMs, String endpoints) {
+        this.defaultMs = defaultMs;
+        this.maxMs = maxMs;
+        this.endpointDefaults = parseEndpoints(endpoints);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long budget;
+        String header = request.getHeader(HEADER);
+        if (header != null && !header.isBlank()) {
+            long requested = parsePositive(header.trim());
+            if (requested <= 0) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, HEADER + " must be a positive number of milliseconds");
+                return;
+            }
+            budget = Math.min(requested, maxMs);
+        } else {
+            budget = endpointDefault(request.getRequestURI());
+        }
+        if (budget <= 0) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Request deadline exceeded");
+            return;
+        }
+
+        RequestDeadline.start(budget);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    // -1 when malformed
+    private static long parsePositive(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long endpointDefault(String path) {
+        String bestMatch = null;
+        for (String prefix : endpointDefaults.keySet()) {
+            if (path.startsWith(prefix) && (bestMatch == null || prefix.length() > bestMatch.length())) {
+                bestMatch = prefix;
+            }
+        }
+        return bestMatch != null ? endpointDefaults.get(bestMatch) : defaultMs;
+    }
+
+    private static Map<String, Long> parseEndpoints(String endpoints) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (endpoints == null) {
+            return result;
+        }
+        for (String entry : endpoints.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq > 0) {
+                result.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.Durability;
+import com.example.mdbspringboot.util.DurabilityContext;
+import com.example.mdbspringboot.util.DurabilityTier;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * Selects the durability tier of a controller method: the {@code mongo.durability.endpoints} override
+ * for {@code Controller.method} if there is one, otherwise its {@link Durability} annotation.
+ */
+public class DurabilityInterceptor implements HandlerInterceptor {
+
+    private final Map<String, DurabilityTier> endpointOverrides;
+
+    public DurabilityInterceptor(Map<String, DurabilityTier> endpointOverrides) {
+        this.endpointOverrides = endpointOverrides;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            DurabilityTier tier = endpointOverrides.isEmpty() ? null
+                    : endpointOverrides.get(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+            if (tier == null) {
+                Durability annotation = method.getMethodAnnotation(Durability.class);
+                tier = annotation != null ? annotation.value() : null;
+            }
+            if (tier != null) {
+                DurabilityContext.set(tier);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        DurabilityContext.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.mdbspringboot.config;
 
 import com.example.mdbspringboot.util.JwtUtils;
+import com.example.mdbspringboot.util.RequestTimings;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,9 +13,16 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 public class JwtFilter extends OncePerRequestFilter {
 
+    private final List<String> adminUsers;
+
+    public JwtFilter(List<String> adminUsers) {
+        this.adminUsers = adminUsers;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -29,10 +37,16 @@ public class JwtFilter extends OncePerRequestFilter {
         if (token != null && token.startsWith("Bearer ")) {
             token = token.substring(7);
             // 验证 Token 并设置 SecurityContext
-            if (JwtUtils.verifyToken(token)) {
-                String username = JwtUtils.getUserName(token);
+            long start = System.nanoTime();
+            boolean valid = JwtUtils.verifyToken(token);
+            String username = valid ? JwtUtils.getUserName(token) : null;
+            RequestTimings.record(RequestTimings.Phase.JWT, start);
+            if (valid) {
+                // 管理员额外拥有 ROLE_ADMIN
                 Authentication auth = new UsernamePasswordAuthenticationToken(
-                        username, null, AuthorityUtils.createAuthorityList("ROLE_USER")
+                        username, null, adminUsers.contains(username)
+                                ? AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")
+                                : AuthorityUtils.createAuthorityList("ROLE_USER")
                 );
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
@@ -0,0 +1,30 @@
+package com.example.mdbspringboot.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics for the logging pipeline: events lost by the async appender and request logs skipped by sampling.
+ */
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public MeterBinder loggingMetrics() {
+        return registry -> {
+            FunctionCounter.builder("logging.events.lost", CountingAsyncAppender.class, c -> CountingAsyncAppender.getDropped())
+                    .tag("reason", "queue-full")
+                    .description("Log events dropped because the async queue was full")
+                    .register(registry);
+            FunctionCounter.builder("logging.events.lost", CountingAsyncAppender.class, c -> CountingAsyncAppender.getDiscarded())
+                    .tag("reason", "discarded")
+                    .description("TRACE/DEBUG/INFO events discarded because the async queue was nearly full")
+                    .register(registry);
+            FunctionCounter.builder("logging.requests.sampled-out", RequestLogFilter.class, c -> RequestLogFilter.getSampledOut())
+                    .description("Request log lines skipped by per-endpoint sampling")
+                    .register(registry);
+        };
+    }
+}
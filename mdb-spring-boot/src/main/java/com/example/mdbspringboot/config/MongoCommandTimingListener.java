@@ -0,0 +1,27 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.RequestTimings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds every Mongo command to the {@link RequestTimings} of the request that issued it. The sync
+ * driver calls listeners on the application thread, so the thread-local is the right one.
+ */
+public class MongoCommandTimingListener implements CommandListener {
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        RequestTimings.recordMongo(event.getCommandName(), event.getDatabaseName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        RequestTimings.recordMongo(event.getCommandName(), event.getDatabaseName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+}
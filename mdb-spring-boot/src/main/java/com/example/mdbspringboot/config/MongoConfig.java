@@ -0,0 +1,218 @@
+package com.example.mdbspringboot.config;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import com.example.mdbspringboot.util.AdaptiveConcurrencyLimit;
+import com.example.mdbspringboot.util.DurabilityContext;
+import com.example.mdbspringboot.util.DurabilityTier;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.TagSet;
+
+/**
+ * Mongo client settings and read/write routing.
+ *
+ * Writes always go through the primary {@link MongoTemplate}. Read-only endpoints use
+ * {@link #READ_TEMPLATE} and the {@link #READ_PREFERENCE} bean, which route to replica-set
+ * secondaries with a bounded staleness. On a standalone server the read preference is
+ * ignored, so the same configuration works against a single local mongod.
+ */
+@Configuration
+public class MongoConfig {
+
+    public static final String READ_TEMPLATE = "readMongoTemplate";
+    public static final String READ_PREFERENCE = "readPreference";
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    @Value("${mongo.pool.max-size:100}")
+    private int maxPoolSize;
+
+    @Value("${mongo.pool.min-size:0}")
+    private int minPoolSize;
+
+    @Value("${mongo.pool.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${mongo.pool.max-idle-ms:60000}")
+    private long maxIdleMs;
+
+    @Value("${mongo.socket.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${mongo.socket.read-timeout-ms:0}")
+    private int readTimeoutMs;
+
+    @Value("${mongo.server-selection-timeout-ms:5000}")
+    private long serverSelectionTimeoutMs;
+
+    @Value("${mongo.compressors:}")
+    private List<String> compressors;
+
+    @Value("${mongo.read.preference:secondaryPreferred}")
+    private String readPreferenceMode;
+
+    @Value("${mongo.read.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+
+    // Per-operation durability defaults; empty means the client-wide write concern
+    @Value("${mongo.durability.insert:}")
+    private String insertDurability;
+
+    @Value("${mongo.durability.save:}")
+    private String saveDurability;
+
+    @Value("${mongo.durability.update:}")
+    private String updateDurability;
+
+    @Value("${mongo.durability.remove:}")
+    private String removeDurability;
+
+    @Value("${admission.adaptive.min-limit:4}")
+    private int adaptiveMinLimit;
+
+    @Value("${admission.adaptive.max-limit:64}")
+    private int adaptiveMaxLimit;
+
+    @Value("${admission.adaptive.target-latency-ms:50}")
+    private long adaptiveTargetLatencyMs;
+
+    @Value("${admission.adaptive.backoff:0.9}")
+    private double adaptiveBackoff;
+
+    @Value("${admission.adaptive.window-ms:1000}")
+    private long adaptiveWindowMs;
+
+    /**
+     * Limit on concurrent requests, shrinking while Mongo command latency is above target.
+     * Used by {@link AdmissionControlFilter}.
+     */
+    @Bean
+    public AdaptiveConcurrencyLimit mongoConcurrencyLimit() {
+        return new AdaptiveConcurrencyLimit(adaptiveMinLimit, adaptiveMaxLimit, adaptiveTargetLatencyMs,
+                adaptiveBackoff, adaptiveWindowMs);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientSettingsCustomizer(AdaptiveConcurrencyLimit mongoConcurrencyLimit) {
+        return builder -> {
+            builder.addCommandListener(new MongoLatencyListener(mongoConcurrencyLimit));
+            builder.addCommandListener(new MongoCommandTimingListener());
+            builder.applyToConnectionPoolSettings(pool -> pool
+                    .maxSize(maxPoolSize)
+                    .minSize(minPoolSize)
+                    .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+                    .maxConnectionIdleTime(maxIdleMs, TimeUnit.MILLISECONDS));
+            builder.applyToSocketSettings(socket -> socket
+                    .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                    .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS));
+            builder.applyToClusterSettings(cluster -> cluster
+                    .serverSelectionTimeout(serverSelectionTimeoutMs, TimeUnit.MILLISECONDS));
+            // Keep the primary as the client-wide default so anything not explicitly routed stays consistent
+            builder.readPreference(ReadPreference.primary());
+
+            List<MongoCompressor> configured = compressors();
+            if (!configured.isEmpty()) {
+                builder.compressorList(configured);
+            }
+            logger.info("Mongo client: pool {}-{}, maxWait {}ms, compressors {}, reads routed to {} (maxStaleness {}s)",
+                    minPoolSize, maxPoolSize, maxWaitMs, compressors, readPreferenceMode, maxStalenessSeconds);
+        };
+    }
+
+    /**
+     * Read preference for read-only endpoints.
+     */
+    @Bean(READ_PREFERENCE)
+    public ReadPreference readPreference() {
+        if ("primary".equalsIgnoreCase(readPreferenceMode)) {
+            return ReadPreference.primary();
+        }
+        // maxStaleness must be at least 90 seconds, otherwise the driver rejects it at server selection
+        return ReadPreference.valueOf(readPreferenceMode, List.<TagSet>of(),
+                Math.max(90, maxStalenessSeconds), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Default template used by the repositories and all writes.
+     */
+    @Primary
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+        MongoTemplate template = new MongoTemplate(factory, converter);
+        template.setWriteConcernResolver(writeConcernResolver());
+        return template;
+    }
+
+    /**
+     * Write concern of each write: the tier selected for the current endpoint (see {@link DurabilityContext}),
+     * otherwise the per-operation default, otherwise the client default.
+     */
+    private WriteConcernResolver writeConcernResolver() {
+        Map<MongoActionOperation, DurabilityTier> defaults = new EnumMap<>(MongoActionOperation.class);
+        putTier(defaults, MongoActionOperation.INSERT, insertDurability);
+        putTier(defaults, MongoActionOperation.INSERT_LIST, insertDurability);
+        putTier(defaults, MongoActionOperation.SAVE, saveDurability);
+        putTier(defaults, MongoActionOperation.UPDATE, updateDurability);
+        putTier(defaults, MongoActionOperation.BULK, updateDurability);
+        putTier(defaults, MongoActionOperation.REMOVE, removeDurability);
+        logger.info("Mongo durability defaults per operation: {}", defaults);
+
+        return action -> {
+            DurabilityTier tier = DurabilityContext.get();
+            if (tier == null) {
+                tier = defaults.get(action.getMongoActionOperation());
+            }
+            return tier != null ? tier.getWriteConcern() : action.getDefaultWriteConcern();
+        };
+    }
+
+    private static void putTier(Map<MongoActionOperation, DurabilityTier> tiers, MongoActionOperation operation, String tier) {
+        if (tier != null && !tier.isBlank()) {
+            tiers.put(operation, DurabilityTier.valueOf(tier.trim()));
+        }
+    }
+
+    /**
+     * Template for read-only queries, routed according to {@link #readPreference()}.
+     */
+    @Bean(READ_TEMPLATE)
+    public MongoTemplate readMongoTemplate(MongoDatabaseFactory factory, MongoConverter converter,
+                                           @Qualifier(READ_PREFERENCE) ReadPreference readPreference) {
+        MongoTemplate template = new MongoTemplate(factory, converter);
+        template.setReadPreference(readPreference);
+        return template;
+    }
+
+    private List<MongoCompressor> compressors() {
+        List<MongoCompressor> result = new ArrayList<>();
+        for (String name : compressors) {
+            switch (name.trim().toLowerCase()) {
+                case "" -> { }
+                case "zlib" -> result.add(MongoCompressor.createZlibCompressor());
+                case "snappy" -> result.add(MongoCompressor.createSnappyCompressor());
+                case "zstd" -> result.add(MongoCompressor.createZstdCompressor());
+                default -> throw new IllegalArgumentException("Unsupported mongo compressor: " + name);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.AdaptiveConcurrencyLimit;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the round-trip time of every Mongo command into the adaptive concurrency limit.
+ */
+public class MongoLatencyListener implements CommandListener {
+
+    private final AdaptiveConcurrencyLimit limit;
+
+    public MongoLatencyListener(AdaptiveConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        limit.onLatency(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        limit.onLatency(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+}
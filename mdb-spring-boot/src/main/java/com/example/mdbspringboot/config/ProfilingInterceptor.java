@@ -0,0 +1,43 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.service.ProfilingService;
+import com.example.mdbspringboot.util.EndpointEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Emits an {@link EndpointEvent} around each controller method while a profiling session is running.
+ * Outside a session it does nothing, so the request path stays allocation-free.
+ */
+public class ProfilingInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = ProfilingInterceptor.class.getName() + ".event";
+
+    private final ProfilingService profilingService;
+
+    public ProfilingInterceptor(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (profilingService.isRecording() && handler instanceof HandlerMethod method) {
+            EndpointEvent event = new EndpointEvent();
+            event.endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+            event.httpMethod = request.getMethod();
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(EVENT_ATTRIBUTE) instanceof EndpointEvent event) {
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.mdbspringboot.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One structured (key=value) line per request on the {@value #LOGGER} logger, sampled per endpoint.
+ * Server errors and requests slower than {@code alwaysLogMs} are always logged. The sampling
+ * decision is made before anything is formatted, so sampled-out requests cost a random number.
+ */
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    public static final String LOGGER = "request-log";
+
+    private static final Logger logger = LoggerFactory.getLogger(LOGGER);
+
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+
+    private final double defaultRate;
+    private final Map<String, Double> endpointRates;
+    private final long alwaysLogNanos;
+
+    /**
+     * @param endpointRates comma separated {@code pathPrefix=rate} pairs, e.g. {@code /api/groceries/getAll=0.01}
+     */
+    public RequestLogFilter(double defaultRate, String endpointRates, long alwaysLogMs) {
+        this.defaultRate = defaultRate;
+        this.endpointRates = parseRates(endpointRates);
+        this.alwaysLogNanos = alwaysLogMs * 1_000_000L;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!logger.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            int status = response.getStatus();
+            boolean sampled = status >= 500 || elapsed >= alwaysLogNanos
+                    || ThreadLocalRandom.current().nextDouble() < rateFor(request.getRequestURI());
+            if (sampled) {
+                logger.info("method={} path={} status={} durationMs={} user={}",
+                        request.getMethod(), request.getRequestURI(), status, elapsed / 1_000_000L, user());
+            } else {
+                SAMPLED_OUT.increment();
+            }
+        }
+    }
+
+    public static long getSampledOut() {
+        return SAMPLED_OUT.sum();
+    }
+
+    private double rateFor(String path) {
+        String bestMatch = null;
+        for (String prefix : endpointRates.keySet()) {
+            if (path.startsWith(prefix) && (bestMatch == null || prefix.length() > bestMatch.length())) {
+                bestMatch = prefix;
+            }
+        }
+        return bestMatch != null ? endpointRates.get(bestMatch) : defaultRate;
+    }
+
+    private static String user() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth instanceof AnonymousAuthenticationToken ? "-" : auth.getName();
+    }
+
+    private static Map<String, Double> parseRates(String rates) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (rates == null) {
+            return result;
+        }
+        for (String entry : rates.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq > 0) {
+                result.put(entry.substring(0, eq).trim(), Double.parseDouble(entry.substring(eq + 1).trim()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.model.SlowRequest;
+import com.example.mdbspringboot.service.OtlpSpanExporter;
+import com.example.mdbspringboot.util.RequestTimings;
+import com.example.mdbspringboot.util.RequestTimings.Phase;
+import com.example.mdbspringboot.util.SlowRequestLog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter of the chain: times the request and, if it took longer than the threshold,
+ * records its phase breakdown in the {@link SlowRequestLog} and hands it to the span exporter.
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private final long thresholdNanos;
+    private final SlowRequestLog slowRequestLog;
+    private final OtlpSpanExporter spanExporter;
+
+    public RequestTimingFilter(long thresholdMs, SlowRequestLog slowRequestLog, OtlpSpanExporter spanExporter) {
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+        this.slowRequestLog = slowRequestLog;
+        this.spanExporter = spanExporter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        RequestTimings timings = RequestTimings.current();
+        timings.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = timings.elapsedNanos();
+            timings.end();
+            if (elapsed >= thresholdNanos) {
+                SlowRequest slow = snapshot(timings, elapsed, request, response);
+                slowRequestLog.add(slow);
+                spanExporter.export(slow);
+            }
+        }
+    }
+
+    private static SlowRequest snapshot(RequestTimings timings, long elapsed, HttpServletRequest request,
+                                        HttpServletResponse response) {
+        SlowRequest slow = new SlowRequest();
+        slow.setTimestamp(timings.getStartMillis());
+        slow.setMethod(request.getMethod());
+        slow.setUri(request.getRequestURI());
+        slow.setStatus(response.getStatus());
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && !(auth instanceof AnonymousAuthenticationToken)) {
+            slow.setUser(auth.getName());
+        }
+
+        slow.setTotalMs(millis(elapsed));
+        slow.setJwtMs(millis(timings.getPhaseNanos(Phase.JWT)));
+        slow.setMongoMs(millis(timings.getPhaseNanos(Phase.MONGO)));
+        slow.setOutboundMs(millis(timings.getPhaseNanos(Phase.OUTBOUND)));
+        slow.setSerializationMs(millis(timings.getPhaseNanos(Phase.SERIALIZATION)));
+        long measured = 0;
+        for (Phase phase : Phase.values()) {
+            measured += timings.getPhaseNanos(phase);
+        }
+        slow.setOtherMs(millis(Math.max(0, elapsed - measured)));
+        if (timings.getOutboundOffsetNanos() >= 0) {
+            slow.setOutboundOffsetMs(millis(timings.getOutboundOffsetNanos()));
+        }
+
+        slow.setMongoCommandCount(timings.getCommandCount());
+        int recorded = Math.min(timings.getCommandCount(), RequestTimings.MAX_COMMANDS);
+        for (int i = 0; i < recorded; i++) {
+            slow.getMongoCommands().add(new SlowRequest.MongoCommand(timings.getCommandName(i),
+                    timings.getCommandDatabase(i), millis(timings.getCommandOffsetNanos(i)),
+                    millis(timings.getCommandNanos(i))));
+        }
+        return slow;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
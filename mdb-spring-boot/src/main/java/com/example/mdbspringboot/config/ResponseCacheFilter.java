@@ -0,0 +1,175 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.PrimaryReadContext;
+import com.example.mdbspringboot.util.ResponseCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serves the hot list endpoints from {@link ResponseCache}, placed after authorization so that hits
+ * are only served to callers allowed to make the request.
+ *
+ * <ul>
+ *   <li>{@code GET /api/groceries/getAll} and {@code /api/groceries/category/*} are cached per user,
+ *   filled from a primary read (see {@link PrimaryReadContext}), and invalidated by any other request
+ *   the same user makes under {@code /api/groceries}. They also expire after {@code groceriesTtlMs},
+ *   which bounds how stale they get when another instance handled the write: invalidation is local
+ *   to this instance, so it is only exact when a single instance serves a user</li>
+ *   <li>{@code GET /collections} is shared by all users and expires after {@code collectionsTtlMs}, as
+ *   collections are created outside this application</li>
+ * </ul>
+ * Keys include the query string and the Accept header, so every negotiated format is cached separately.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String GROCERIES = "/api/groceries";
+    private static final String COLLECTIONS = "/collections";
+
+    private final ResponseCache cache;
+    private final long groceriesTtlNanos;
+    private final long collectionsTtlNanos;
+
+    public ResponseCacheFilter(ResponseCache cache, long groceriesTtlMs, long collectionsTtlMs, MeterRegistry registry) {
+        this.cache = cache;
+        this.groceriesTtlNanos = groceriesTtlMs * 1_000_000L;
+        this.collectionsTtlNanos = collectionsTtlMs * 1_000_000L;
+
+        FunctionCounter.builder("response.cache.requests", cache, ResponseCache::getHits).tag("result", "hit").register(registry);
+        FunctionCounter.builder("response.cache.requests", cache, ResponseCache::getMisses).tag("result", "miss").register(registry);
+        FunctionCounter.builder("response.cache.evictions", cache, ResponseCache::getEvictions).register(registry);
+        registry.gauge("response.cache.bytes", cache, ResponseCache::getBytes);
+        registry.gauge("response.cache.entries", cache, ResponseCache::getEntries);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String user = user();
+        String path = request.getRequestURI();
+        if (user == null || !(path.startsWith(GROCERIES) || path.equals(COLLECTIONS))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean groceries = path.startsWith(GROCERIES);
+        String scope = groceries ? groceriesScope(user) : COLLECTIONS;
+        String method = request.getMethod();
+        if ("HEAD".equals(method) || "OPTIONS".equals(method)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!"GET".equals(method)) {
+            // Bumped before the write so that reads already running don't store their result, and after
+            // it so that reads that started during the write don't either
+            cache.invalidate(scope);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                cache.invalidate(scope);
+            }
+            return;
+        }
+        // Archived items expire without a write from their owner, so reads that include them are not cached
+        if (groceries && (!path.equals(GROCERIES + "/getAll") && !path.startsWith(GROCERIES + "/category/")
+                || Boolean.parseBoolean(request.getParameter("includeArchived")))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String query = request.getQueryString();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String key = (groceries ? user + " " : "") + path + (query != null ? "?" + query : "")
+                + " " + (accept != null ? accept : "");
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            serve(entry, request, response);
+            return;
+        }
+
+        long generation = cache.generation(scope);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            if (groceries) {
+                PrimaryReadContext.require();
+            }
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+                    && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+                cache.put(key, scope, generation, groceries ? groceriesTtlNanos : collectionsTtlNanos,
+                        wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            PrimaryReadContext.clear();
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    public static String groceriesScope(String user) {
+        return GROCERIES + " " + user;
+    }
+
+    private static void serve(ResponseCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = entry.gzipped() != null && acceptsGzip(request);
+        ByteBuffer body = (gzip ? entry.gzipped() : entry.body()).duplicate();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setContentLength(body.remaining());
+        // Entries are keyed on Accept, as the converters that wrote them advertise
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (entry.gzipped() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            // Tomcat does not compress a response that already has a Content-Encoding
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        // Commit the headers through the wrappers (Spring Security adds its headers on commit), then write
+        // the off-heap buffer straight to Tomcat's output buffer without copying it onto the heap
+        response.flushBuffer();
+        ServletResponse inner = response;
+        while (inner instanceof ServletResponseWrapper wrapper) {
+            inner = wrapper.getResponse();
+        }
+        ServletOutputStream out = inner.getOutputStream();
+        if (out instanceof CoyoteOutputStream coyote) {
+            coyote.write(body);
+        } else {
+            byte[] chunk = new byte[Math.min(body.remaining(), 8192)];
+            while (body.hasRemaining()) {
+                int length = Math.min(chunk.length, body.remaining());
+                body.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static String user() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth instanceof AnonymousAuthenticationToken ? null : auth.getName();
+    }
+}
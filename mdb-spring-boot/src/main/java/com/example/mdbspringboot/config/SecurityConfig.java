@@ -1,26 +1,121 @@
 package com.example.mdbspringboot.config;
 
+import com.example.mdbspringboot.service.OtlpSpanExporter;
+import com.example.mdbspringboot.util.AdaptiveConcurrencyLimit;
+import com.example.mdbspringboot.util.ResponseCache;
+import com.example.mdbspringboot.util.SlowRequestLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.List;
+
 @Configuration
 public class SecurityConfig {
 
+    @Value("${request.deadline.default-ms:5000}")
+    private long deadlineDefaultMs;
+
+    @Value("${request.deadline.max-ms:30000}")
+    private long deadlineMaxMs;
+
+    @Value("${request.deadline.endpoints:}")
+    private String deadlineEndpoints;
+
+    @Value("${admission.rate.per-user-per-second:20}")
+    private double ratePerUser;
+
+    @Value("${admission.rate.burst:40}")
+    private double rateBurst;
+
+    @Value("${admission.bulkhead.expensive-paths:/collection-data,/collections,/api/groceries/getAll}")
+    private List<String> expensivePaths;
+
+    @Value("${admission.bulkhead.expensive-limit:8}")
+    private int expensiveLimit;
+
+    @Value("${admission.bulkhead.cheap-limit:64}")
+    private int cheapLimit;
+
+    @Value("${admin.users:admin}")
+    private List<String> adminUsers;
+
+    @Autowired
+    private AdaptiveConcurrencyLimit mongoConcurrencyLimit;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${slow-requests.threshold-ms:500}")
+    private long slowRequestThresholdMs;
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    @Autowired
+    private OtlpSpanExporter spanExporter;
+
+    @Value("${request-log.default-sample-rate:0.1}")
+    private double requestLogDefaultRate;
+
+    @Value("${request-log.sample-rates:}")
+    private String requestLogRates;
+
+    @Value("${request-log.always-log-ms:1000}")
+    private long requestLogAlwaysMs;
+
+    @Value("${response-cache.enabled:true}")
+    private boolean responseCacheEnabled;
+
+    // Never longer than the staleness already allowed for reads from secondaries
+    @Value("${response-cache.groceries-ttl-ms:90000}")
+    private long responseCacheGroceriesTtlMs;
+
+    @Value("${mongo.read.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+
+    @Value("${response-cache.collections-ttl-ms:10000}")
+    private long responseCacheCollectionsTtlMs;
+
+    @Autowired
+    private ResponseCache responseCache;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
+                    .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                     .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                     .requestMatchers("/api/login").permitAll()
                     .requestMatchers("/time").permitAll()
+                    .requestMatchers("/admin/**").hasRole("ADMIN")
                     .anyRequest().authenticated() // 所有请求需认证
             )
-            .addFilterBefore(new JwtFilter(), UsernamePasswordAuthenticationFilter.class) // 添加 JWT 过滤器
+            .addFilterBefore(new JwtFilter(adminUsers), UsernamePasswordAuthenticationFilter.class) // 添加 JWT 过滤器
+            .addFilterBefore(new DeadlineFilter(deadlineDefaultMs, deadlineMaxMs, deadlineEndpoints), JwtFilter.class) // 请求截止时间
+            .addFilterBefore(new RequestTimingFilter(slowRequestThresholdMs, slowRequestLog, spanExporter),
+                    DeadlineFilter.class) // 慢请求记录
+            // Same order as RequestTimingFilter, registered after it: runs inside timing but before
+            // DeadlineFilter, so deadline rejections are logged too
+            .addFilterBefore(new RequestLogFilter(requestLogDefaultRate, requestLogRates, requestLogAlwaysMs),
+                    DeadlineFilter.class) // 请求日志（采样）
+            .addFilterAfter(new AdmissionControlFilter(ratePerUser, rateBurst, expensivePaths, expensiveLimit, cheapLimit,
+                    mongoConcurrencyLimit, meterRegistry), JwtFilter.class) // 限流
             .csrf(csrf -> csrf.disable());
+        if (responseCacheEnabled) {
+            http.addFilterAfter(new ResponseCacheFilter(responseCache,
+                    Math.min(responseCacheGroceriesTtlMs, maxStalenessSeconds * 1000), responseCacheCollectionsTtlMs,
+                    meterRegistry),
+                    AuthorizationFilter.class); // 响应缓存（授权之后）
+        }
 
         return http.build();
     }
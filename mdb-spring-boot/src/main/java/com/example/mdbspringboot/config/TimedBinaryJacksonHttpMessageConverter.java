@@ -0,0 +1,42 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.RequestTimings;
+import com.example.mdbspringboot.util.RequestTimings.Phase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Binary Jackson format (CBOR, Smile, MessagePack) selected through the Accept header, recording the
+ * time spent writing response bodies as the serialization phase like {@link TimedJackson2HttpMessageConverter}.
+ */
+public class TimedBinaryJacksonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    private final int bufferBytes;
+
+    public TimedBinaryJacksonHttpMessageConverter(ObjectMapper objectMapper, int bufferBytes,
+                                                  MediaType... supportedMediaTypes) {
+        super(objectMapper, supportedMediaTypes);
+        this.bufferBytes = bufferBytes;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            outputMessage.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            BufferedHttpOutputMessage buffered = new BufferedHttpOutputMessage(outputMessage, bufferBytes);
+            super.writeInternal(object, type, buffered);
+            buffered.finish();
+        } finally {
+            RequestTimings.record(Phase.SERIALIZATION, start);
+        }
+    }
+}
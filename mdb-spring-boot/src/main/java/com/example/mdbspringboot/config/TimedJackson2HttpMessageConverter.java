@@ -0,0 +1,43 @@
+package com.example.mdbspringboot.config;
+
+import com.example.mdbspringboot.util.RequestTimings;
+import com.example.mdbspringboot.util.RequestTimings.Phase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that records the time spent writing response bodies as the serialization phase.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final int bufferBytes;
+
+    /**
+     * @param bufferBytes bodies up to this size are sent with a Content-Length (see {@link BufferedHttpOutputMessage})
+     */
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, int bufferBytes) {
+        super(objectMapper);
+        this.bufferBytes = bufferBytes;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            // The format follows Accept (see TimedBinaryJacksonHttpMessageConverter), so caches must key on it
+            outputMessage.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            BufferedHttpOutputMessage buffered = new BufferedHttpOutputMessage(outputMessage, bufferBytes);
+            super.writeInternal(object, type, buffered);
+            buffered.finish();
+        } finally {
+            RequestTimings.record(Phase.SERIALIZATION, start);
+        }
+    }
+}
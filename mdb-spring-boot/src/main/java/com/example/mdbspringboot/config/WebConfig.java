@@ -1,11 +1,52 @@
 package com.example.mdbspringboot.config;
 
+import com.example.mdbspringboot.service.ProfilingService;
+import com.example.mdbspringboot.util.DurabilityTier;
+import com.example.mdbspringboot.util.ResponseCache;
+import com.example.mdbspringboot.util.SlowRequestLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    public static final MediaType APPLICATION_MSGPACK = MediaType.valueOf("application/msgpack");
+    public static final MediaType APPLICATION_X_MSGPACK = MediaType.valueOf("application/x-msgpack");
+
+    @Autowired
+    private ProfilingService profilingService;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    // Bodies smaller than this get a Content-Length, so that Tomcat does not compress them
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minCompressedSize;
+
+    @Value("${mongo.durability.endpoints:}")
+    private String durabilityOverrides;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -13,4 +54,68 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedMethods("GET", "POST", "PUT", "DELETE")
             .allowCredentials(true);
     }
+
+    /**
+     * Replaces Spring Boot's JSON converter so serialization time shows up in slow-request breakdowns.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJackson2HttpMessageConverter(objectMapper, bufferBytes());
+    }
+
+    /**
+     * Compact encodings of the same payloads for clients that ask for them with Accept. They go after
+     * JSON so that JSON stays the default, and share Spring Boot's Jackson settings.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new TimedBinaryJacksonHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build(), bufferBytes(), MediaType.APPLICATION_CBOR));
+        converters.add(new TimedBinaryJacksonHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build(), bufferBytes(), APPLICATION_SMILE));
+        converters.add(new TimedBinaryJacksonHttpMessageConverter(
+                objectMapperBuilder.factory(new MessagePackFactory()).build(), bufferBytes(),
+                APPLICATION_MSGPACK, APPLICATION_X_MSGPACK));
+    }
+
+    private int bufferBytes() {
+        return (int) Math.min(minCompressedSize.toBytes(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Off-heap cache of encoded list responses, filled and served by {@link ResponseCacheFilter}.
+     * Bodies that Tomcat would compress also get a pre-gzipped copy.
+     */
+    @Bean
+    public ResponseCache responseCache(@Value("${response-cache.max-size:64MB}") DataSize maxSize,
+                                       @Value("${response-cache.max-entry-size:4MB}") DataSize maxEntrySize,
+                                       @Value("${server.compression.enabled:false}") boolean compression) {
+        return new ResponseCache(maxSize.toBytes(), (int) Math.min(maxEntrySize.toBytes(), Integer.MAX_VALUE),
+                compression ? bufferBytes() : -1);
+    }
+
+    @Bean
+    public SlowRequestLog slowRequestLog(@Value("${slow-requests.capacity:100}") int capacity) {
+        return new SlowRequestLog(capacity);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ProfilingInterceptor(profilingService));
+        registry.addInterceptor(new DurabilityInterceptor(parseDurabilityOverrides()));
+    }
+
+    // Controller.method=TIER pairs, e.g. GroceryController.updateCategory=FIRE_AND_FORGET
+    private Map<String, DurabilityTier> parseDurabilityOverrides() {
+        Map<String, DurabilityTier> result = new HashMap<>();
+        for (String entry : durabilityOverrides.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq > 0) {
+                result.put(entry.substring(0, eq).trim(), DurabilityTier.valueOf(entry.substring(eq + 1).trim()));
+            }
+        }
+        return result;
+    }
 }
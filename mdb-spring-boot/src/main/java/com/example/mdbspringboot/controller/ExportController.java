@@ -0,0 +1,78 @@
+package com.example.mdbspringboot.controller;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.mdbspringboot.service.CollectionExportService;
+
+/**
+ * Whole-collection exports to local disk, restricted to admins like the other /admin endpoints.
+ */
+@RestController
+@RequestMapping("/admin/exports")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private CollectionExportService exportService;
+
+    /**
+     * POST /admin/exports?collectionName=...&partitions=8
+     * Starts a parallel export of a sp_storage_db collection and returns its manifest.
+     * 409 when export.max-running-jobs exports are already running.
+     */
+    @PostMapping
+    public ResponseEntity<?> startExport(@RequestParam String collectionName,
+                                         @RequestParam(defaultValue = "8") int partitions) {
+        try {
+            return new ResponseEntity<>(exportService.start(collectionName, partitions), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error starting export of {}: {}", collectionName, e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Error starting export: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /admin/exports/{jobId}
+     * Returns the manifest of an export, including per-partition progress.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getExport(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(exportService.get(jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Error reading export: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /admin/exports/{jobId}/resume
+     * Re-runs the partitions of an export that did not complete.
+     */
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<?> resumeExport(@PathVariable String jobId) {
+        try {
+            return new ResponseEntity<>(exportService.resume(jobId), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error resuming export {}: {}", jobId, e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Error resuming export: " + e.getMessage()));
+        }
+    }
+}
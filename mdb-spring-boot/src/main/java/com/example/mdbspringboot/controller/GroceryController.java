@@ -1,7 +1,10 @@
 package com.example.mdbspringboot.controller;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.BasicResponseHandler;
@@ -18,13 +21,24 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.example.mdbspringboot.model.GroceryItem;
 import com.example.mdbspringboot.repository.CustomItemRepository;
 import com.example.mdbspringboot.repository.ItemRepository;
-
+import com.example.mdbspringboot.util.DeadlineExceededException;
+import com.example.mdbspringboot.util.Durability;
+import com.example.mdbspringboot.util.DurabilityTier;
+import com.example.mdbspringboot.util.RequestDeadline;
+import com.example.mdbspringboot.util.RequestTimings;
+
+/**
+ * Grocery list of the authenticated user: every endpoint reads and writes only the caller's own items.
+ * Reads cover the hot collection unless {@code includeArchived=true}, which also returns items
+ * archived for not being modified in a while (see GroceryTieringService).
+ */
 @RestController
 @RequestMapping("/api/groceries")
 public class GroceryController {
@@ -44,12 +58,13 @@ public class GroceryController {
      * Returns all grocery items.
      */
     @GetMapping("getAll")
-    public List<GroceryItem> getAllGroceries() {
+    public List<GroceryItem> getAllGroceries(@RequestParam(defaultValue = "false") boolean includeArchived,
+                                             Principal principal) {
         RestTemplate restTemplate = new RestTemplate();
         //ResponseEntity<String> response = restTemplate.getForEntity("https://ifconfig.me", String.class);
         //String message = response.getBody();
         //logger.info("My ip address is: " + message);
-        return groceryItemRepo.findAll();
+        return customRepo.findAllItems(principal.getName(), includeArchived);
     }
 
     /**
@@ -57,8 +72,10 @@ public class GroceryController {
      * Returns a single grocery item by its name.
      */
     @GetMapping("/name/{name}")
-    public GroceryItem getGroceryByName(@PathVariable String name) {
-        return groceryItemRepo.findItemByName(name);
+    public GroceryItem getGroceryByName(@PathVariable String name,
+                                        @RequestParam(defaultValue = "false") boolean includeArchived,
+                                        Principal principal) {
+        return customRepo.findItem(principal.getName(), name, includeArchived);
     }
 
     /**
@@ -66,22 +83,37 @@ public class GroceryController {
      * Returns grocery items for a specific category.
      */
     @GetMapping("/category/{category}")
-    public List<GroceryItem> getGroceriesByCategory(@PathVariable String category) {
-        return groceryItemRepo.findAll(category);
+    public List<GroceryItem> getGroceriesByCategory(@PathVariable String category,
+                                                    @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                    Principal principal) {
+        return customRepo.findItemsByCategory(principal.getName(), category, includeArchived);
     }
 
     /**
      * POST /api/groceries
-     * Creates a new grocery item.
+     * Creates a new grocery item owned by the caller, with a generated id, or replaces one of theirs,
+     * archived or not, when an id is given. Any other id is rejected with 404, whether or not another user has it.
      */
     @PostMapping("/create")
-    public ResponseEntity<?> createGrocery(@RequestBody GroceryItem groceryItem) {
+    @Durability(DurabilityTier.MAJORITY)
+    public ResponseEntity<?> createGrocery(@RequestBody GroceryItem groceryItem, Principal principal) {
         try {
+            RequestDeadline.checkRemainingMillis("createGrocery");
+            if (groceryItem.getId() != null && groceryItem.getId().isBlank()) {
+                groceryItem.setId(null);
+            }
+            if (groceryItem.getId() != null && !customRepo.itemExists(principal.getName(), groceryItem.getId())) {
+                return new ResponseEntity<>("Grocery item not found: " + groceryItem.getId(), HttpStatus.NOT_FOUND);
+            }
+            groceryItem.setOwner(principal.getName());
+            groceryItem.setDeletedAt(null);
             groceryItemRepo.save(groceryItem);
 
             String res = callApi();
             groceryItem.setName(groceryItem.getName() + " " + res);
             return new ResponseEntity<>(groceryItem, HttpStatus.CREATED);
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error creating grocery item: {}", e.getMessage());
             return new ResponseEntity<>("Error creating grocery item: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -90,36 +122,48 @@ public class GroceryController {
 
     /**
      * PUT /api/groceries/updateCategory
-     * Updates the category for all grocery items that currently match the given category.
+     * Updates the category for all grocery items that currently match the given category, archived or not.
      * The new category defaults to "munchies" if not provided.
      */
     @PutMapping("/updateCategory")
+    @Durability(DurabilityTier.ACKNOWLEDGED)
     public String updateCategory(@RequestParam String currentCategory,
-                                 @RequestParam(defaultValue = "munchies") String newCategory) {
-        List<GroceryItem> items = groceryItemRepo.findAll(currentCategory);
+                                 @RequestParam(defaultValue = "munchies") String newCategory,
+                                 Principal principal) {
+        List<GroceryItem> items = customRepo.findItemsForUpdate(principal.getName(), currentCategory);
         items.forEach(item -> item.setCategory(newCategory));
+        RequestDeadline.checkRemainingMillis("updateCategory");
         List<GroceryItem> updatedItems = groceryItemRepo.saveAll(items);
         return "Successfully updated " + updatedItems.size() + " items.";
     }
 
     /**
      * PUT /api/groceries/updateQuantity
-     * Updates the quantity of a grocery item identified by its name.
+     * Updates the quantity of a grocery item identified by its name, archived or not. 404 when the
+     * caller has no such item.
      */
     @PutMapping("/updateQuantity")
-    public String updateQuantity(@RequestParam String name, @RequestParam float newQuantity) {
-        customRepo.updateItemQuantity(name, newQuantity);
-        return "Quantity updated for item: " + name;
+    @Durability(DurabilityTier.ACKNOWLEDGED)
+    public ResponseEntity<String> updateQuantity(@RequestParam String name, @RequestParam float newQuantity,
+                                                 Principal principal) {
+        if (!customRepo.updateItemQuantity(principal.getName(), name, newQuantity)) {
+            return new ResponseEntity<>("Grocery item not found: " + name, HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok("Quantity updated for item: " + name);
     }
 
     /**
      * DELETE /api/groceries/{id}
-     * Deletes a grocery item by its id.
+     * Deletes a grocery item by its id, hot or archived. The item is hidden at once and moved to the
+     * archive later. 404 when the caller has no such item.
      */
     @DeleteMapping("/{id}")
-    public String deleteGrocery(@PathVariable String id) {
-        groceryItemRepo.deleteById(id);
-        return "Deleted grocery item with id: " + id;
+    @Durability(DurabilityTier.MAJORITY)
+    public ResponseEntity<String> deleteGrocery(@PathVariable String id, Principal principal) {
+        if (!customRepo.softDeleteItem(principal.getName(), id)) {
+            return new ResponseEntity<>("Grocery item not found: " + id, HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok("Deleted grocery item with id: " + id);
     }
 
     /**
@@ -127,12 +171,20 @@ public class GroceryController {
      * Returns the total count of grocery items.
      */
     @GetMapping("/count")
-    public long countGroceries(){
-        return groceryItemRepo.count();
+    public long countGroceries(@RequestParam(defaultValue = "false") boolean includeArchived, Principal principal){
+        return customRepo.countItems(principal.getName(), includeArchived);
     }
 
     private String callApi() {
-        try (CloseableHttpAsyncClient httpClient = HttpAsyncClients.createDefault()) {
+        // Outbound timeouts are whatever is left of the request budget
+        long budget = Math.min(RequestDeadline.checkRemainingMillis("callApi"), Integer.MAX_VALUE);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) budget)
+                .setConnectionRequestTimeout((int) budget)
+                .setSocketTimeout((int) budget)
+                .build();
+        try (CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom().setDefaultRequestConfig(requestConfig).build()) {
+            long start = System.nanoTime();
             httpClient.start();
             HttpGet httpPost = new HttpGet(storageUri + "/vi/health");
 
@@ -160,9 +212,15 @@ public class GroceryController {
                 }
             });
 
-            return future.get();
+            try {
+                return future.get(budget, TimeUnit.MILLISECONDS);
+            } finally {
+                RequestTimings.record(RequestTimings.Phase.OUTBOUND, start);
+            }
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded during callApi", e);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("callApi failed: {}", e.toString());
             return "Error: " + e.getMessage();
         }
     }
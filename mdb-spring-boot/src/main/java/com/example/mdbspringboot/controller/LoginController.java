@@ -23,14 +23,13 @@ public class LoginController {
 
     @GetMapping("/health")
     public ResponseEntity<?> healthCheck() {
-        logger.info("Health check requested");
+        logger.debug("Health check requested");
         return ResponseEntity.ok(Map.of("status", "ok"));
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        logger.info("Login attempt for user: {}", loginRequest.getUsername());
-        logger.debug("Login request body: {}", loginRequest);
+        logger.debug("Login attempt for user: {}", loginRequest.getUsername());
         
         if (loginRequest.getUsername() == null || loginRequest.getPassword() == null) {
             logger.warn("Login failed: username or password is null");
@@ -38,14 +37,11 @@ public class LoginController {
         }
         
         String storedPassword = USERS.get(loginRequest.getUsername());
-        logger.debug("Stored password for user {}: {}", loginRequest.getUsername(), 
-            storedPassword != null ? "exists" : "not found");
         
         if (storedPassword != null && storedPassword.equals(loginRequest.getPassword())) {
-            logger.info("Login successful for user: {}", loginRequest.getUsername());
+            logger.debug("Login successful for user: {}", loginRequest.getUsername());
             try {
                 String token = JwtUtils.makeAccessToken(loginRequest.getUsername());
-                logger.debug("Generated token for user {}: {}", loginRequest.getUsername(), token);
                 return ResponseEntity.ok(Map.of("token", token));
             } catch (Exception e) {
                 logger.error("Error generating token for user {}: {}", loginRequest.getUsername(), e.getMessage());
@@ -1,6 +1,7 @@
 package com.example.mdbspringboot.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -11,10 +12,16 @@ import org.bson.Document;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.ListCollectionsIterable;
+import com.mongodb.ReadPreference;
+import com.example.mdbspringboot.config.MongoConfig;
+import com.example.mdbspringboot.util.RequestDeadline;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = "*")
 @RestController
@@ -26,35 +33,59 @@ public class MongoDBController {
     @Autowired
     private MongoClient mongoClient;
 
+    @Autowired
+    @Qualifier(MongoConfig.READ_PREFERENCE)
+    private ReadPreference readPreference;
+
     @GetMapping("/collections")
     public List<String> getAllCollections() {
-        logger.info("Attempting to get all collection names from database: {}", TARGET_DATABASE);
+        logger.debug("Attempting to get all collection names from database: {}", TARGET_DATABASE);
         List<String> collections = new ArrayList<>();
         
         // Get the database
-        MongoDatabase database = mongoClient.getDatabase(TARGET_DATABASE);
+        MongoDatabase database = mongoClient.getDatabase(TARGET_DATABASE).withReadPreference(readPreference);
         
         // List all collections
-        for (String collectionName : database.listCollectionNames()) {
-            collections.add(collectionName);
+        try {
+            ListCollectionsIterable<Document> listing = database.listCollections();
+            if (RequestDeadline.isSet()) {
+                listing.maxTime(RequestDeadline.checkRemainingMillis("listCollections"), TimeUnit.MILLISECONDS);
+            }
+            for (Document collection : listing) {
+                collections.add(collection.getString("name"));
+            }
+        } catch (RuntimeException e) {
+            throw RequestDeadline.translate(e, "listCollections");
         }
         
-        logger.info("Found collections in {}: {}", TARGET_DATABASE, collections);
+        // The full list is only built into a message when DEBUG is on
+        logger.atDebug().setMessage("Found collections in {}: {}")
+                .addArgument(TARGET_DATABASE)
+                .addArgument(() -> String.join(", ", collections))
+                .log();
         return collections;
     }
 
     @GetMapping("/collection-data")
     public List<Document> getCollectionData(@RequestParam String collectionName) {
-        logger.info("Attempting to get data from collection: {} in database: {}", collectionName, TARGET_DATABASE);
+        logger.debug("Attempting to get data from collection: {} in database: {}", collectionName, TARGET_DATABASE);
         
-        MongoDatabase database = mongoClient.getDatabase(TARGET_DATABASE);
+        MongoDatabase database = mongoClient.getDatabase(TARGET_DATABASE).withReadPreference(readPreference);
         MongoCollection<Document> collection = database.getCollection(collectionName);
         
         // List all documents
         List<Document> documents = new ArrayList<>();
-        collection.find().into(documents);
+        try {
+            FindIterable<Document> find = collection.find();
+            if (RequestDeadline.isSet()) {
+                find.maxTime(RequestDeadline.checkRemainingMillis("find"), TimeUnit.MILLISECONDS);
+            }
+            find.into(documents);
+        } catch (RuntimeException e) {
+            throw RequestDeadline.translate(e, "find");
+        }
         
-        logger.info("Found {} documents in collection {}", documents.size(), collectionName);
+        logger.debug("Found {} documents in collection {}", documents.size(), collectionName);
         return documents;
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.mdbspringboot.controller;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.mdbspringboot.service.ProfilingService;
+
+@RestController
+@RequestMapping("/admin/profiling")
+public class ProfilingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingController.class);
+
+    @Autowired
+    private ProfilingService profilingService;
+
+    /**
+     * POST /admin/profiling?seconds=30
+     * Starts a time-boxed JFR session. Only one session can run at a time.
+     */
+    @PostMapping
+    public ResponseEntity<?> startProfiling(@RequestParam(defaultValue = "30") long seconds) {
+        try {
+            return new ResponseEntity<>(profilingService.start(seconds), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error starting profiling session: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Error starting profiling session: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /admin/profiling/{id}
+     * Returns the session status and, once done, the per-endpoint CPU, allocation and lock summary.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getProfiling(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(profilingService.get(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /admin/profiling/{id}/recording.jfr
+     * Downloads the recording of a finished session.
+     */
+    @GetMapping("/{id}/recording.jfr")
+    public ResponseEntity<?> getRecording(@PathVariable String id) {
+        try {
+            Path file = profilingService.recordingFile(id);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".jfr\"")
+                    .body(new FileSystemResource(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.mdbspringboot.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.mdbspringboot.service.OtlpSpanExporter;
+import com.example.mdbspringboot.util.SlowRequestLog;
+
+@RestController
+@RequestMapping("/admin/slow-requests")
+public class SlowRequestController {
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    @Autowired
+    private OtlpSpanExporter spanExporter;
+
+    @Value("${slow-requests.threshold-ms:500}")
+    private long thresholdMs;
+
+    /**
+     * GET /admin/slow-requests
+     * Returns the most recent requests above the threshold, slowest first, with their phase breakdown.
+     */
+    @GetMapping
+    public Map<String, Object> getSlowRequests() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMs", thresholdMs);
+        result.put("recorded", slowRequestLog.getRecorded());
+        result.put("otlpEnabled", spanExporter.isEnabled());
+        result.put("otlpDropped", spanExporter.getDropped());
+        result.put("requests", slowRequestLog.slowest());
+        return result;
+    }
+
+    /**
+     * DELETE /admin/slow-requests
+     * Clears the buffer.
+     */
+    @DeleteMapping
+    public String clearSlowRequests() {
+        slowRequestLog.clear();
+        return "Cleared slow requests";
+    }
+}
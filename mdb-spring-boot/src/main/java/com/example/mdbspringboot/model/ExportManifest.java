@@ -0,0 +1,170 @@
+package com.example.mdbspringboot.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * manifest.json of a collection export: one entry per {@code _id} range, each written to its own
+ * gzipped Extended JSON lines file. Bounds are Extended JSON documents of the form {@code {"_id": ...}};
+ * a null bound means the range is open on that side.
+ */
+public class ExportManifest {
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private String jobId;
+    private String database;
+    private String collection;
+    private Status status;
+    private long estimatedDocuments;
+    private long createdAt;
+    private long updatedAt;
+    private List<Partition> partitions = new ArrayList<>();
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public void setDatabase(String database) {
+        this.database = database;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getEstimatedDocuments() {
+        return estimatedDocuments;
+    }
+
+    public void setEstimatedDocuments(long estimatedDocuments) {
+        this.estimatedDocuments = estimatedDocuments;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public List<Partition> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<Partition> partitions) {
+        this.partitions = partitions;
+    }
+
+    public long getExportedDocuments() {
+        return partitions.stream().mapToLong(Partition::getDocuments).sum();
+    }
+
+    public long getCompletedPartitions() {
+        return partitions.stream().filter(p -> p.getStatus() == Status.DONE).count();
+    }
+
+    public static class Partition {
+        private int index;
+        private String lowerBound;
+        private String upperBound;
+        private String file;
+        private Status status;
+        private long documents;
+        private long bytes;
+        private String error;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getLowerBound() {
+            return lowerBound;
+        }
+
+        public void setLowerBound(String lowerBound) {
+            this.lowerBound = lowerBound;
+        }
+
+        public String getUpperBound() {
+            return upperBound;
+        }
+
+        public void setUpperBound(String upperBound) {
+            this.upperBound = upperBound;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public long getDocuments() {
+            return documents;
+        }
+
+        public void setDocuments(long documents) {
+            this.documents = documents;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
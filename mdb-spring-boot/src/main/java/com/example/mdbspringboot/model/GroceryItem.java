@@ -1,19 +1,54 @@
 package com.example.mdbspringboot.model;
 
+import java.time.Instant;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
-@Document("GroceryItem")
+/**
+ * Items are partitioned by {@code owner}, the username of the user who created them. Every query
+ * filters on it, so with the collection sharded on {@code {owner: 1, _id: 1}} each request targets
+ * a single shard. {@link Sharded} also makes {@code save()} match on {@code {_id, owner}} with the
+ * owner being saved (the key is immutable, so it is not looked up first), so a save never touches
+ * another user's item. A sharded collection does not enforce {@code _id} uniqueness across shards,
+ * so new items always get a generated id, and a client-supplied id is only accepted for an existing
+ * item of the caller (see GroceryController#createGrocery).
+ *
+ * Deleted items keep their document with {@code deletedAt} set until
+ * {@link com.example.mdbspringboot.service.GroceryTieringService} moves them, along with items not
+ * modified for a while, to {@link #ARCHIVE_COLLECTION}.
+ */
+@Document(GroceryItem.COLLECTION)
+@Sharded(shardKey = { "owner", "id" }, immutableKey = true)
+@CompoundIndex(name = "owner_id", def = "{'owner': 1, '_id': 1}")
+@CompoundIndex(name = "owner_category_name", def = "{'owner': 1, 'category': 1, 'name': 1}")
+@CompoundIndex(name = "owner_name", def = "{'owner': 1, 'name': 1}")
 public class GroceryItem {
 
-
+		public static final String COLLECTION = "GroceryItem";
+		public static final String ARCHIVE_COLLECTION = "GroceryItemArchive";
 
 		@Id
 		private String id;
 
+		private String owner;
+
 		private String name;
 		private int quantity;
 		private String category;
+
+		// Set on every save, and by hand in partial updates
+		@LastModifiedDate
+		@Indexed(name = "lastModified")
+		private Instant lastModified;
+
+		// Only set on deleted items, which the tiering mover archives shortly after
+		@Indexed(name = "deletedAt", sparse = true)
+		private Instant deletedAt;
 		
 		public GroceryItem(String id, String name, int quantity, String category) {
 			super();
@@ -31,6 +66,14 @@ public class GroceryItem {
 			this.id = id;
 		}
 
+		public String getOwner() {
+			return owner;
+		}
+
+		public void setOwner(String owner) {
+			this.owner = owner;
+		}
+
 		public String getName() {
 			return name;
 		}
@@ -55,4 +98,20 @@ public class GroceryItem {
 			this.category = category;
 		}
 
+		public Instant getLastModified() {
+			return lastModified;
+		}
+
+		public void setLastModified(Instant lastModified) {
+			this.lastModified = lastModified;
+		}
+
+		public Instant getDeletedAt() {
+			return deletedAt;
+		}
+
+		public void setDeletedAt(Instant deletedAt) {
+			this.deletedAt = deletedAt;
+		}
+
 }
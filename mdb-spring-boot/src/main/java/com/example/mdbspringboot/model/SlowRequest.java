@@ -0,0 +1,168 @@
+package com.example.mdbspringboot.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of a request that took longer than the slow-request threshold, with the time spent in
+ * each phase. {@code otherMs} is whatever is not covered by a measured phase (filters, controller code, ...).
+ */
+public class SlowRequest {
+
+    private long timestamp;
+    private String method;
+    private String uri;
+    private int status;
+    private String user;
+    private double totalMs;
+    private double jwtMs;
+    private double mongoMs;
+    private double outboundMs;
+    private double serializationMs;
+    private double otherMs;
+    private double outboundOffsetMs = -1;
+    private int mongoCommandCount;
+    private List<MongoCommand> mongoCommands = new ArrayList<>();
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    public void setTotalMs(double totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public double getJwtMs() {
+        return jwtMs;
+    }
+
+    public void setJwtMs(double jwtMs) {
+        this.jwtMs = jwtMs;
+    }
+
+    public double getMongoMs() {
+        return mongoMs;
+    }
+
+    public void setMongoMs(double mongoMs) {
+        this.mongoMs = mongoMs;
+    }
+
+    public double getOutboundMs() {
+        return outboundMs;
+    }
+
+    public void setOutboundMs(double outboundMs) {
+        this.outboundMs = outboundMs;
+    }
+
+    public double getSerializationMs() {
+        return serializationMs;
+    }
+
+    public void setSerializationMs(double serializationMs) {
+        this.serializationMs = serializationMs;
+    }
+
+    public double getOtherMs() {
+        return otherMs;
+    }
+
+    public void setOtherMs(double otherMs) {
+        this.otherMs = otherMs;
+    }
+
+    public double getOutboundOffsetMs() {
+        return outboundOffsetMs;
+    }
+
+    public void setOutboundOffsetMs(double outboundOffsetMs) {
+        this.outboundOffsetMs = outboundOffsetMs;
+    }
+
+    public int getMongoCommandCount() {
+        return mongoCommandCount;
+    }
+
+    public void setMongoCommandCount(int mongoCommandCount) {
+        this.mongoCommandCount = mongoCommandCount;
+    }
+
+    public List<MongoCommand> getMongoCommands() {
+        return mongoCommands;
+    }
+
+    public void setMongoCommands(List<MongoCommand> mongoCommands) {
+        this.mongoCommands = mongoCommands;
+    }
+
+    public static class MongoCommand {
+        private String command;
+        private String database;
+        private double offsetMs;
+        private double durationMs;
+
+        public MongoCommand(String command, String database, double offsetMs, double durationMs) {
+            this.command = command;
+            this.database = database;
+            this.offsetMs = offsetMs;
+            this.durationMs = durationMs;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getDatabase() {
+            return database;
+        }
+
+        public double getOffsetMs() {
+            return offsetMs;
+        }
+
+        public double getDurationMs() {
+            return durationMs;
+        }
+    }
+}
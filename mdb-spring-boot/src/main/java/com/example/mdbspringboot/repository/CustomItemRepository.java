@@ -1,7 +1,36 @@
 package com.example.mdbspringboot.repository;
 
+import java.util.List;
+
+import com.example.mdbspringboot.model.GroceryItem;
+
 public interface CustomItemRepository {
 	
-	void updateItemQuantity(String itemName, float newQuantity);
+	// Every method is scoped to the items of one owner, and ignores deleted items. Methods used for
+	// writes move archived items they match back to the hot collection first.
+	// False if the owner has no such item
+	boolean updateItemQuantity(String owner, String itemName, float newQuantity);
+
+	// Marks the item deleted, in the archive too; the tiering mover archives it if it is still hot.
+	// False if the owner has no such item
+	boolean softDeleteItem(String owner, String id);
+
+	// Read-only queries, routed to replica-set secondaries. With includeArchived, items moved to the
+	// archive collection for not being modified in a while are read too
+	List<GroceryItem> findAllItems(String owner, boolean includeArchived);
+
+	List<GroceryItem> findItemsByCategory(String owner, String category, boolean includeArchived);
+
+	long countItems(String owner, boolean includeArchived);
+
+	// Same as ItemRepository.findAll(owner, category), read from the primary and bounded by the request
+	// deadline, for items that are saved back
+	List<GroceryItem> findItemsForUpdate(String owner, String category);
+
+	// Whether the owner has a live item with this id, read from the primary; an archived one is restored
+	boolean itemExists(String owner, String id);
+
+	// Same as ItemRepository.findItemByName, bounded by the request deadline
+	GroceryItem findItem(String owner, String name, boolean includeArchived);
 
 }
@@ -1,33 +1,227 @@
 package com.example.mdbspringboot.repository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import com.example.mdbspringboot.config.MongoConfig;
 import com.example.mdbspringboot.model.GroceryItem;
+import com.example.mdbspringboot.util.PrimaryReadContext;
+import com.example.mdbspringboot.util.RequestDeadline;
 import com.mongodb.client.result.UpdateResult;
 
 @Component
 public class CustomItemRepositoryImpl implements CustomItemRepository {
 
+	private static final Logger logger = LoggerFactory.getLogger(CustomItemRepositoryImpl.class);
+
 	@Autowired
 	MongoTemplate mongoTemplate;
+
+	@Autowired
+	@Qualifier(MongoConfig.READ_TEMPLATE)
+	MongoTemplate readMongoTemplate;
 	
-	public void updateItemQuantity(String name, float newQuantity) {
-		Query query = new Query(Criteria.where("name").is(name));
+	public boolean updateItemQuantity(String owner, String name, float newQuantity) {
+		Query query = new Query(ownedBy(owner).and("name").is(name));
 		Update update = new Update();
 		update.set("quantity", newQuantity);
+		update.set("lastModified", Instant.now());
 		
+		// The driver has no maxTimeMS for updates, so only fail fast here; the socket timeout bounds the rest
+		RequestDeadline.checkRemainingMillis("updateItemQuantity");
 		UpdateResult result = mongoTemplate.updateFirst(query, update, GroceryItem.class);
+		if (result.wasAcknowledged() && result.getMatchedCount() == 0
+				&& restoreArchived(owner, Criteria.where("name").is(name), true, "updateItemQuantity") > 0) {
+			RequestDeadline.checkRemainingMillis("updateItemQuantity");
+			result = mongoTemplate.updateFirst(query, update, GroceryItem.class);
+		}
 		
-		if(result == null)
-			System.out.println("No documents updated");
-		else
-			System.out.println(result.getModifiedCount() + " document(s) updated..");
+		if(!result.wasAcknowledged()) {
+			// Whether it matched is unknown, so it counts as done
+			logger.debug("Update sent unacknowledged");
+			return true;
+		}
+		logger.debug("{} document(s) updated..", result.getModifiedCount());
+		return result.getMatchedCount() > 0;
+	}
+
+	public boolean softDeleteItem(String owner, String id) {
+		Query query = new Query(ownedBy(owner).and("_id").is(id));
+		Instant now = Instant.now();
+		Update update = new Update().set("deletedAt", now).set("lastModified", now);
+
+		RequestDeadline.checkRemainingMillis("softDeleteItem");
+		UpdateResult result = mongoTemplate.updateFirst(query, update, GroceryItem.class);
+		if (!result.wasAcknowledged()) {
+			// Unacknowledged (FIRE_AND_FORGET): whether it matched is unknown, and an archived item is
+			// left as it is rather than reported missing
+			return true;
+		}
+		if (result.getMatchedCount() > 0) {
+			return true;
+		}
+		// Archived items are returned with includeArchived, so they can be deleted as well
+		RequestDeadline.checkRemainingMillis("softDeleteItem");
+		result = mongoTemplate.updateFirst(query, update, GroceryItem.ARCHIVE_COLLECTION);
+		return result.wasAcknowledged() && result.getMatchedCount() > 0;
+	}
+
+	public List<GroceryItem> findAllItems(String owner, boolean includeArchived) {
+		return find("findAllItems", () -> new Query(ownedBy(owner)), includeArchived);
+	}
+
+	public List<GroceryItem> findItemsByCategory(String owner, String category, boolean includeArchived) {
+		return find("findItemsByCategory", () -> {
+			// Same projection as ItemRepository.findAll(owner, category), without the owner
+			Query query = new Query(ownedBy(owner).and("category").is(category));
+			query.fields().include("name", "quantity");
+			return query;
+		}, includeArchived);
+	}
+
+	public long countItems(String owner, boolean includeArchived) {
+		if (!includeArchived) {
+			return run("countItems", () -> reader().count(
+					bounded(new Query(ownedBy(owner)), "countItems"), GroceryItem.class));
+		}
+		long hot = run("countItems", () -> reader().count(
+				bounded(new Query(ownedBy(owner)), "countItems"), GroceryItem.class));
+		// Archived items are counted on the server, skipping ids that are hot again like find(). Ids are only
+		// unique per owner, so the hot items looked up by _id are matched on the owner too
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.match(ownedBy(owner)),
+				Aggregation.lookup(GroceryItem.COLLECTION, "_id", "_id", "hot"),
+				Aggregation.match(Criteria.where("hot").not().elemMatch(ownedBy(owner))),
+				Aggregation.count().as("count"));
+		Duration maxTime = RequestDeadline.maxTime("countItems");
+		if (maxTime != null) {
+			aggregation = aggregation.withOptions(AggregationOptions.builder().maxTime(maxTime).build());
+		}
+		Aggregation bounded = aggregation;
+		Document archived = run("countItems", () -> reader().aggregate(
+				bounded, GroceryItem.ARCHIVE_COLLECTION, Document.class).getUniqueMappedResult());
+		return hot + (archived != null ? ((Number) archived.get("count")).longValue() : 0);
+	}
+
+	public List<GroceryItem> findItemsForUpdate(String owner, String category) {
+		restoreArchived(owner, Criteria.where("category").is(category), false, "findItemsForUpdate");
+		Query query = bounded(new Query(ownedBy(owner).and("category").is(category)), "findItemsForUpdate");
+		// owner is part of the shard key, so it has to be loaded for the items to be saved back
+		query.fields().include("owner", "name", "quantity");
+		return run("findItemsForUpdate", () -> mongoTemplate.find(query, GroceryItem.class));
+	}
+
+	public boolean itemExists(String owner, String id) {
+		Query query = bounded(new Query(ownedBy(owner).and("_id").is(id)), "itemExists");
+		return run("itemExists", () -> mongoTemplate.exists(query, GroceryItem.class))
+				|| restoreArchived(owner, Criteria.where("_id").is(id), true, "itemExists") > 0;
+	}
+
+	public GroceryItem findItem(String owner, String name, boolean includeArchived) {
+		GroceryItem item = run("findItem", () -> mongoTemplate.findOne(
+				bounded(new Query(ownedBy(owner).and("name").is(name)), "findItem"), GroceryItem.class));
+		if (item == null && includeArchived) {
+			item = run("findItem", () -> reader().findOne(
+					bounded(new Query(ownedBy(owner).and("name").is(name)), "findItem"),
+					GroceryItem.class, GroceryItem.ARCHIVE_COLLECTION));
+		}
+		return item;
+	}
+
+	// The hot collection first, then the archive, skipping ids that are hot again. The query is built
+	// twice as each read gets its own maxTimeMS
+	private List<GroceryItem> find(String operation, Supplier<Query> query, boolean includeArchived) {
+		List<GroceryItem> items = run(operation, () -> reader().find(
+				bounded(query.get(), operation), GroceryItem.class));
+		if (includeArchived) {
+			Set<String> hot = items.stream().map(GroceryItem::getId).collect(Collectors.toSet());
+			items = new ArrayList<>(items);
+			for (GroceryItem archived : run(operation, () -> reader().find(
+					bounded(query.get(), operation), GroceryItem.class, GroceryItem.ARCHIVE_COLLECTION))) {
+				if (!hot.contains(archived.getId())) {
+					items.add(archived);
+				}
+			}
+		}
+		return items;
+	}
+
+	// Moves the owner's archived items matching criteria back to the hot collection with a fresh
+	// lastModified, so they can be written to. The hot copy is inserted before the archive copy is
+	// removed, and reads skip archived ids that are hot, so a failure in between loses nothing. An id
+	// that is hot already is left to the hot copy
+	private int restoreArchived(String owner, Criteria criteria, boolean first, String operation) {
+		Query query = bounded(new Query(ownedBy(owner).andOperator(criteria)), operation);
+		if (first) {
+			query.limit(1);
+		}
+		List<GroceryItem> archived = run(operation, () -> mongoTemplate.find(
+				query, GroceryItem.class, GroceryItem.ARCHIVE_COLLECTION));
+		int restored = 0;
+		for (GroceryItem item : archived) {
+			item.setLastModified(Instant.now());
+			RequestDeadline.checkRemainingMillis(operation);
+			try {
+				mongoTemplate.insert(item, GroceryItem.COLLECTION);
+			} catch (DuplicateKeyException e) {
+				// Being moved: the mover drops the archive copy if the hot one changes, so leave it be
+				logger.debug("Archived item {} is hot already", item.getId());
+				continue;
+			}
+			mongoTemplate.remove(new Query(Criteria.where("owner").is(owner).and("_id").is(item.getId())),
+					GroceryItem.class, GroceryItem.ARCHIVE_COLLECTION);
+			restored++;
+		}
+		if (restored > 0) {
+			logger.debug("Restored {} archived item(s) for {}", restored, operation);
+		}
+		return restored;
+	}
+
+	// Secondaries, unless the response is being cached (see PrimaryReadContext)
+	private MongoTemplate reader() {
+		return PrimaryReadContext.isRequired() ? mongoTemplate : readMongoTemplate;
+	}
+
+	// Deleted items are archived too, but are never returned from either collection
+	private static Criteria ownedBy(String owner) {
+		return Criteria.where("owner").is(owner).and("deletedAt").is(null);
+	}
+
+	// Passes the remaining request budget to the server as maxTimeMS
+	private Query bounded(Query query, String operation) {
+		Duration maxTime = RequestDeadline.maxTime(operation);
+		if (maxTime != null) {
+			query.maxTime(maxTime);
+		}
+		return query;
+	}
 
+	private <T> T run(String operation, Supplier<T> action) {
+		try {
+			return action.get();
+		} catch (RuntimeException e) {
+			throw RequestDeadline.translate(e, operation);
+		}
 	}
 
 }
@@ -9,12 +9,20 @@ import com.example.mdbspringboot.model.GroceryItem;
 
 public interface ItemRepository extends MongoRepository<GroceryItem, String> {
 	
-	@Query("{name:'?0'}")
-	GroceryItem findItemByName(String name);
+	// All queries are scoped to the owner, the prefix of every index and of the shard key, and skip deleted items
+	@Query("{owner:'?0', name:'?1', deletedAt: null}")
+	GroceryItem findItemByName(String owner, String name);
 	
-	@Query(value="{category:'?0'}", fields="{'name' : 1, 'quantity' : 1}")
-	List<GroceryItem> findAll(String category);
+	// owner is part of the shard key, so it has to be loaded for the items to be saved back
+	@Query(value="{owner:'?0', category:'?1', deletedAt: null}", fields="{'owner' : 1, 'name' : 1, 'quantity' : 1}")
+	List<GroceryItem> findAll(String owner, String category);
 	
-	public long count();
+	List<GroceryItem> findByOwner(String owner);
+	
+	long countByOwner(String owner);
+	
+	long deleteByIdAndOwner(String id, String owner);
+	
+	long deleteByOwner(String owner);
 
 }
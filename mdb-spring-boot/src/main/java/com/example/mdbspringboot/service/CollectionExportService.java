@@ -0,0 +1,383 @@
+package com.example.mdbspringboot.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.mdbspringboot.config.MongoConfig;
+import com.example.mdbspringboot.model.ExportManifest;
+import com.example.mdbspringboot.model.ExportManifest.Partition;
+import com.example.mdbspringboot.model.ExportManifest.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exports whole {@code sp_storage_db} collections to local disk.
+ *
+ * The collection is split into {@code _id} ranges from a {@code $sample} of ids, and the ranges are
+ * read in parallel on a bounded worker pool. Each range becomes {@code part-NNNNN.jsonl.gz}
+ * (Extended JSON, one document per line) next to a {@code manifest.json} that records bounds,
+ * progress and status. A partition file is only renamed into place once complete, so resuming a
+ * job re-reads exactly the partitions that did not finish.
+ */
+@Service
+public class CollectionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionExportService.class);
+    private static final String TARGET_DATABASE = "sp_storage_db";
+    private static final String MANIFEST = "manifest.json";
+
+    // Ids sampled per partition when computing boundaries
+    private static final int SAMPLES_PER_PARTITION = 20;
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    @Qualifier(MongoConfig.READ_PREFERENCE)
+    private ReadPreference readPreference;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.dir:exports}")
+    private String exportDir;
+
+    @Value("${export.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${export.max-partitions:256}")
+    private int maxPartitions;
+
+    @Value("${export.max-running-jobs:2}")
+    private int maxRunningJobs;
+
+    // Held while checking maxRunningJobs and marking a job RUNNING, so the check cannot be raced
+    private final Object admission = new Object();
+
+    private final ExecutorService workers;
+    private final Map<String, ExportManifest> jobs = new ConcurrentHashMap<>();
+
+    public CollectionExportService(@Value("${export.workers:4}") int workerCount) {
+        AtomicInteger threadId = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "export-worker-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Plans the partitions of {@code collectionName} and starts reading them.
+     */
+    public ExportManifest start(String collectionName, int partitions) throws IOException {
+        MongoDatabase database = database();
+        boolean exists = database.listCollectionNames().into(new ArrayList<>()).contains(collectionName);
+        if (!exists) {
+            throw new IllegalArgumentException("Collection not found: " + collectionName);
+        }
+        MongoCollection<Document> collection = database.getCollection(collectionName);
+
+        ExportManifest manifest = new ExportManifest();
+        manifest.setJobId(UUID.randomUUID().toString());
+        manifest.setDatabase(TARGET_DATABASE);
+        manifest.setCollection(collectionName);
+        manifest.setStatus(Status.PENDING);
+        manifest.setEstimatedDocuments(collection.estimatedDocumentCount());
+        manifest.setCreatedAt(System.currentTimeMillis());
+
+        List<BsonValue> boundaries = boundaries(collection, Math.max(1, Math.min(partitions, maxPartitions)));
+        for (int i = 0; i <= boundaries.size(); i++) {
+            Partition partition = new Partition();
+            partition.setIndex(i);
+            partition.setLowerBound(i == 0 ? null : bound(boundaries.get(i - 1)));
+            partition.setUpperBound(i == boundaries.size() ? null : bound(boundaries.get(i)));
+            partition.setFile(String.format("part-%05d.jsonl.gz", i));
+            partition.setStatus(Status.PENDING);
+            manifest.getPartitions().add(partition);
+        }
+
+        Files.createDirectories(jobDir(manifest.getJobId()));
+        logger.info("Export {} of {}.{}: {} partitions, ~{} documents", manifest.getJobId(), TARGET_DATABASE,
+                collectionName, manifest.getPartitions().size(), manifest.getEstimatedDocuments());
+        List<Partition> pending;
+        synchronized (admission) {
+            checkRunningJobs();
+            jobs.put(manifest.getJobId(), manifest);
+            synchronized (manifest) {
+                pending = claimPending(manifest);
+            }
+        }
+        submit(manifest, pending);
+        return manifest;
+    }
+
+    /**
+     * Re-runs every partition of a job that is not {@code DONE}, e.g. after a failure or a restart.
+     */
+    public ExportManifest resume(String jobId) throws IOException {
+        ExportManifest manifest = get(jobId);
+        List<Partition> pending;
+        // Checked and marked RUNNING under one lock, so concurrent resumes submit each partition once
+        synchronized (admission) {
+            synchronized (manifest) {
+                if (manifest.getStatus() == Status.RUNNING) {
+                    return manifest;
+                }
+                checkRunningJobs();
+                for (Partition partition : manifest.getPartitions()) {
+                    if (partition.getStatus() != Status.DONE) {
+                        partition.setStatus(Status.PENDING);
+                        partition.setDocuments(0);
+                        partition.setBytes(0);
+                        partition.setError(null);
+                    }
+                }
+                pending = claimPending(manifest);
+            }
+        }
+        logger.info("Resuming export {} ({} of {} partitions done)", jobId,
+                manifest.getCompletedPartitions(), manifest.getPartitions().size());
+        submit(manifest, pending);
+        return manifest;
+    }
+
+    /**
+     * Current state of a job, loaded from its manifest if it was started by an earlier process.
+     */
+    public ExportManifest get(String jobId) throws IOException {
+        ExportManifest manifest = jobs.get(jobId);
+        if (manifest != null) {
+            return manifest;
+        }
+        Path file = jobDir(jobId).resolve(MANIFEST);
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("Export job not found: " + jobId);
+        }
+        manifest = objectMapper.readValue(file.toFile(), ExportManifest.class);
+        if (manifest.getStatus() == Status.RUNNING) {
+            // The process that ran it is gone
+            manifest.setStatus(Status.FAILED);
+        }
+        ExportManifest existing = jobs.putIfAbsent(jobId, manifest);
+        return existing != null ? existing : manifest;
+    }
+
+    // Called with the admission lock held
+    private void checkRunningJobs() {
+        long running = jobs.values().stream().filter(job -> job.getStatus() == Status.RUNNING).count();
+        if (running >= maxRunningJobs) {
+            throw new IllegalStateException("Already running " + running + " exports, the maximum; retry later");
+        }
+    }
+
+    // Called with the manifest lock held
+    private List<Partition> claimPending(ExportManifest manifest) throws IOException {
+        List<Partition> pending = new ArrayList<>();
+        for (Partition partition : manifest.getPartitions()) {
+            if (partition.getStatus() == Status.PENDING) {
+                pending.add(partition);
+            }
+        }
+        manifest.setStatus(pending.isEmpty() ? Status.DONE : Status.RUNNING);
+        persist(manifest);
+        return pending;
+    }
+
+    private void submit(ExportManifest manifest, List<Partition> pending) {
+        for (Partition partition : pending) {
+            workers.submit(() -> exportPartition(manifest, partition));
+        }
+    }
+
+    private void exportPartition(ExportManifest manifest, Partition partition) {
+        Path dir = jobDir(manifest.getJobId());
+        Path target = dir.resolve(partition.getFile());
+        Path temp = dir.resolve(partition.getFile() + ".tmp");
+        synchronized (manifest) {
+            partition.setStatus(Status.RUNNING);
+        }
+
+        try {
+            MongoCollection<Document> collection = database().getCollection(manifest.getCollection());
+            long count = 0;
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8));
+                 MongoCursor<Document> cursor = collection.find(rangeFilter(partition))
+                         .sort(Sorts.ascending("_id"))
+                         .batchSize(batchSize)
+                         .iterator()) {
+                while (cursor.hasNext()) {
+                    out.write(cursor.next().toJson(JSON));
+                    out.write('\n');
+                    if (++count % PROGRESS_INTERVAL == 0) {
+                        partition.setDocuments(count);
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (manifest) {
+                partition.setDocuments(count);
+                partition.setBytes(Files.size(target));
+                partition.setStatus(Status.DONE);
+                finishIfComplete(manifest);
+            }
+        } catch (Exception e) {
+            logger.error("Export {} partition {} failed: {}", manifest.getJobId(), partition.getIndex(), e.getMessage());
+            synchronized (manifest) {
+                partition.setStatus(Status.FAILED);
+                partition.setError(e.getMessage());
+                finishIfComplete(manifest);
+            }
+        }
+    }
+
+    // Called with the manifest lock held
+    private void finishIfComplete(ExportManifest manifest) {
+        boolean running = false;
+        boolean failed = false;
+        for (Partition partition : manifest.getPartitions()) {
+            running |= partition.getStatus() == Status.PENDING || partition.getStatus() == Status.RUNNING;
+            failed |= partition.getStatus() == Status.FAILED;
+        }
+        if (!running) {
+            manifest.setStatus(failed ? Status.FAILED : Status.DONE);
+            logger.info("Export {} finished: {} ({} documents)", manifest.getJobId(), manifest.getStatus(),
+                    manifest.getExportedDocuments());
+        }
+        try {
+            persist(manifest);
+        } catch (IOException e) {
+            // The partition result stands; the manifest is written again on the next change or resume
+            logger.warn("Could not write the manifest of export {}: {}", manifest.getJobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Sorted, distinct {@code _id} values splitting the collection into at most {@code partitions} ranges.
+     * Range queries on {@code _id} only match values of the same BSON type, so a collection whose
+     * sampled ids have mixed types is exported as a single partition, and ids of a type missing from
+     * the sample are picked up by the first partition (see {@link #rangeFilter}).
+     */
+    private List<BsonValue> boundaries(MongoCollection<Document> collection, int partitions) {
+        List<BsonValue> result = new ArrayList<>();
+        if (partitions <= 1) {
+            return result;
+        }
+
+        List<Bson> pipeline = List.of(
+                Aggregates.sample(partitions * SAMPLES_PER_PARTITION),
+                Aggregates.project(Projections.include("_id")),
+                Aggregates.sort(Sorts.ascending("_id")));
+        List<BsonValue> sample = new ArrayList<>();
+        for (BsonDocument doc : collection.aggregate(pipeline, BsonDocument.class).allowDiskUse(true)) {
+            sample.add(doc.get("_id"));
+        }
+        if (sample.isEmpty()) {
+            return result;
+        }
+
+        BsonType type = sample.get(0).getBsonType();
+        if (sample.stream().anyMatch(id -> id.getBsonType() != type)) {
+            logger.warn("Collection {} has mixed _id types, exporting as a single partition", collection.getNamespace());
+            return result;
+        }
+
+        for (int i = 1; i < partitions; i++) {
+            BsonValue boundary = sample.get(i * sample.size() / partitions);
+            if (result.isEmpty() || !result.get(result.size() - 1).equals(boundary)) {
+                result.add(boundary);
+            }
+        }
+        return result;
+    }
+
+    // The first partition is "not >= its upper bound" rather than "< its upper bound": a typed comparison
+    // never matches another BSON type, so this is the one partition that also takes ids of other types
+    private Bson rangeFilter(Partition partition) {
+        Bson lower = partition.getLowerBound() != null ? Filters.gte("_id", parseBound(partition.getLowerBound())) : null;
+        Bson upper = partition.getUpperBound() != null ? Filters.lt("_id", parseBound(partition.getUpperBound())) : null;
+        if (lower == null && upper == null) {
+            return new Document();
+        }
+        if (lower == null) {
+            return Filters.not(Filters.gte("_id", parseBound(partition.getUpperBound())));
+        }
+        return upper == null ? lower : Filters.and(lower, upper);
+    }
+
+    private static String bound(BsonValue value) {
+        return new BsonDocument("_id", value).toJson(JSON);
+    }
+
+    private static BsonValue parseBound(String json) {
+        return BsonDocument.parse(json).get("_id");
+    }
+
+    private void persist(ExportManifest manifest) throws IOException {
+        manifest.setUpdatedAt(System.currentTimeMillis());
+        Path dir = jobDir(manifest.getJobId());
+        Path temp = dir.resolve(MANIFEST + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), manifest);
+        Files.move(temp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private MongoDatabase database() {
+        // Bulk scans go to secondaries like the other read-only paths
+        return mongoClient.getDatabase(TARGET_DATABASE).withReadPreference(readPreference);
+    }
+
+    private Path jobDir(String jobId) {
+        if (!jobId.matches("[A-Za-z0-9-]+")) {
+            throw new IllegalArgumentException("Invalid export job id: " + jobId);
+        }
+        return Paths.get(exportDir, jobId);
+    }
+}
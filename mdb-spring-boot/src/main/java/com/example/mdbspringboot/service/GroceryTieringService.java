@@ -0,0 +1,237 @@
+package com.example.mdbspringboot.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Service;
+
+import com.example.mdbspringboot.config.ResponseCacheFilter;
+import com.example.mdbspringboot.model.GroceryItem;
+import com.example.mdbspringboot.util.DurabilityTier;
+import com.example.mdbspringboot.util.ResponseCache;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the {@code GroceryItem} collection, and so its indexes, down to the items in use.
+ *
+ * Every {@code tiering.interval-ms} a background mover copies deleted items and items not modified
+ * for {@code tiering.stale-after-days} to {@link GroceryItem#ARCHIVE_COLLECTION}, stamped with
+ * {@code archivedAt}, then removes them from the hot collection. Items written before {@code lastModified}
+ * existed are stamped with the current time at startup, so they get a full {@code tiering.stale-after-days}
+ * rather than all being archived at once. Work is done in batches of
+ * {@code tiering.batch-size} and paced to {@code tiering.max-docs-per-second}, so it competes little
+ * with user traffic. A TTL index on {@code archivedAt} drops archived items after
+ * {@code tiering.archive-ttl-days}.
+ *
+ * The archive copy is written with majority durability before the hot copy is removed, and the removal
+ * only matches an item whose {@code lastModified} is unchanged, so an item written to meanwhile stays
+ * hot and its archive copy is dropped. Moving an item twice is harmless, so several instances can run
+ * the mover at once.
+ */
+@Service
+public class GroceryTieringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroceryTieringService.class);
+
+    @Value("${tiering.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tiering.interval-ms:60000}")
+    private long intervalMs;
+
+    @Value("${tiering.stale-after-days:90}")
+    private long staleAfterDays;
+
+    @Value("${tiering.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tiering.max-docs-per-second:2000}")
+    private int maxDocsPerSecond;
+
+    @Value("${tiering.max-docs-per-run:100000}")
+    private int maxDocsPerRun;
+
+    @Value("${tiering.archive-ttl-days:365}")
+    private long archiveTtlDays;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "grocery-tiering");
+        t.setDaemon(true);
+        return t;
+    });
+    private Counter archivedDeleted;
+    private Counter archivedStale;
+    private Counter conflicts;
+
+    @PostConstruct
+    public void init() {
+        archivedDeleted = Counter.builder("tiering.archived").tag("reason", "deleted").register(meterRegistry);
+        archivedStale = Counter.builder("tiering.archived").tag("reason", "stale").register(meterRegistry);
+        conflicts = Counter.builder("tiering.conflicts").register(meterRegistry);
+
+        // Archive reads filter on the same fields as hot reads
+        IndexOperations archive = mongoTemplate.indexOps(GroceryItem.ARCHIVE_COLLECTION);
+        archive.ensureIndex(new Index().on("owner", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("owner_id"));
+        archive.ensureIndex(new Index().on("owner", Sort.Direction.ASC).on("category", Sort.Direction.ASC)
+                .on("name", Sort.Direction.ASC).named("owner_category_name"));
+        archive.ensureIndex(new Index().on("owner", Sort.Direction.ASC).on("name", Sort.Direction.ASC).named("owner_name"));
+        try {
+            archive.ensureIndex(new Index().on("archivedAt", Sort.Direction.ASC).named("archivedAt_ttl")
+                    .expire(Duration.ofDays(archiveTtlDays)));
+        } catch (RuntimeException e) {
+            // An existing TTL index is only changed with collMod
+            logger.warn("Could not create the archive TTL index, keeping the existing one: {}", e.getMessage());
+        }
+
+        if (enabled) {
+            // On the mover's thread, so that it neither delays startup nor races the first run
+            scheduler.execute(this::backfillLastModified);
+            scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+            logger.info("Archiving deleted items and items untouched for {} days every {}ms", staleAfterDays, intervalMs);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void backfillLastModified() {
+        try {
+            long stamped = mongoTemplate.getCollection(GroceryItem.COLLECTION).updateMany(
+                    Filters.exists("lastModified", false), Updates.currentDate("lastModified")).getModifiedCount();
+            if (stamped > 0) {
+                logger.info("Stamped {} grocery items without lastModified", stamped);
+            }
+        } catch (RuntimeException e) {
+            // Unstamped items are never archived as stale; the next startup tries again
+            logger.warn("Could not stamp grocery items without lastModified: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Moves up to {@code tiering.max-docs-per-run} items.
+     *
+     * @return the number of items archived
+     */
+    public int run() {
+        Date staleBefore = Date.from(Instant.now().minus(Duration.ofDays(staleAfterDays)));
+        Bson movable = Filters.or(Filters.exists("deletedAt"), Filters.lt("lastModified", staleBefore));
+        MongoCollection<Document> hot = mongoTemplate.getCollection(GroceryItem.COLLECTION);
+        int moved = 0;
+        try {
+            while (moved < maxDocsPerRun && !Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+                List<Document> batch = hot.find(movable).limit(Math.min(batchSize, maxDocsPerRun - moved))
+                        .into(new ArrayList<>());
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int batchMoved = move(batch);
+                moved += batchMoved;
+                if (batchMoved == 0) {
+                    // Everything in the batch was written to meanwhile; leave it to the next run
+                    break;
+                }
+
+                // Pace to the configured rate, counting the time the batch itself took
+                long pauseNanos = batch.size() * 1_000_000_000L / Math.max(maxDocsPerSecond, 1) - (System.nanoTime() - start);
+                if (pauseNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(pauseNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Archiving stopped after {} items: {}", moved, e.getMessage());
+        }
+        if (moved > 0) {
+            logger.info("Archived {} grocery items", moved);
+        }
+        return moved;
+    }
+
+    private int move(List<Document> batch) {
+        Date now = new Date();
+        List<ReplaceOneModel<Document>> copies = new ArrayList<>(batch.size());
+        List<DeleteOneModel<Document>> removals = new ArrayList<>(batch.size());
+        Set<String> owners = new HashSet<>();
+        List<Bson> keys = new ArrayList<>(batch.size());
+        for (Document item : batch) {
+            // owner is the shard key prefix, so every write targets one shard; ids are only unique per owner
+            Bson key = Filters.and(Filters.eq("owner", item.get("owner")), Filters.eq("_id", item.get("_id")));
+            copies.add(new ReplaceOneModel<>(key, new Document(item).append("archivedAt", now),
+                    new ReplaceOptions().upsert(true)));
+            removals.add(new DeleteOneModel<>(Filters.and(key, Filters.eq("lastModified", item.get("lastModified")))));
+            owners.add(item.getString("owner"));
+            keys.add(key);
+        }
+
+        mongoTemplate.getCollection(GroceryItem.ARCHIVE_COLLECTION)
+                .withWriteConcern(DurabilityTier.MAJORITY.getWriteConcern())
+                .bulkWrite(copies);
+        MongoCollection<Document> hot = mongoTemplate.getCollection(GroceryItem.COLLECTION);
+        Set<List<Object>> kept = new HashSet<>();
+        if (hot.bulkWrite(removals).getDeletedCount() < batch.size()) {
+            // Modified since they were read: they stay hot, so drop their archive copies
+            List<Bson> keptKeys = new ArrayList<>();
+            for (Document item : hot.find(Filters.or(keys)).projection(Projections.include("owner", "_id"))) {
+                kept.add(List.of(item.get("owner"), item.get("_id")));
+                keptKeys.add(Filters.and(Filters.eq("owner", item.get("owner")), Filters.eq("_id", item.get("_id"))));
+            }
+            if (!keptKeys.isEmpty()) {
+                mongoTemplate.getCollection(GroceryItem.ARCHIVE_COLLECTION).deleteMany(Filters.or(keptKeys));
+            }
+            conflicts.increment(kept.size());
+        }
+
+        // Stale items disappear from their owner's lists
+        owners.forEach(owner -> responseCache.invalidate(ResponseCacheFilter.groceriesScope(owner)));
+        int moved = 0;
+        for (Document item : batch) {
+            if (!kept.contains(List.of(item.get("owner"), item.get("_id")))) {
+                (item.get("deletedAt") != null ? archivedDeleted : archivedStale).increment();
+                moved++;
+            }
+        }
+        return moved;
+    }
+}
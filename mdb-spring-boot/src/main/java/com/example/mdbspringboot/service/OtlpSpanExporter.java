@@ -0,0 +1,197 @@
+package com.example.mdbspringboot.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.mdbspringboot.model.SlowRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional export of slow requests as OpenTelemetry spans, sent as OTLP/HTTP JSON to a local
+ * collector ({@code slow-requests.otlp.endpoint}, e.g. {@code http://localhost:4318}). Each request
+ * becomes a server span with its phase breakdown as attributes, plus a child span per recorded Mongo
+ * command and one for the outbound call. Spans are queued and sent from a background thread; when
+ * the queue is full they are dropped.
+ */
+@Service
+public class OtlpSpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtlpSpanExporter.class);
+
+    private static final int SPAN_KIND_SERVER = 2;
+    private static final int SPAN_KIND_CLIENT = 3;
+
+    @Value("${slow-requests.otlp.endpoint:}")
+    private String endpoint;
+
+    @Value("${slow-requests.otlp.queue-size:1000}")
+    private int queueSize;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BlockingQueue<SlowRequest> queue;
+    private HttpClient httpClient;
+    private Thread sender;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (endpoint.isBlank()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueSize);
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        sender = new Thread(this::run, "otlp-exporter");
+        sender.setDaemon(true);
+        sender.start();
+        logger.info("Exporting slow requests as OTLP spans to {}", endpoint);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender != null) {
+            sender.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void export(SlowRequest request) {
+        if (queue != null && !queue.offer(request)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void run() {
+        URI uri = URI.create(endpoint.replaceAll("/+$", "") + "/v1/traces");
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<SlowRequest> batch = new ArrayList<>();
+                batch.add(queue.take());
+                queue.drainTo(batch, 99);
+
+                HttpRequest post = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(5))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload(batch))))
+                        .build();
+                HttpResponse<Void> response = httpClient.send(post, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 300) {
+                    logger.warn("OTLP collector returned {}", response.statusCode());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.warn("Failed to export spans: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> payload(List<SlowRequest> batch) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (SlowRequest request : batch) {
+            String traceId = randomHex(16);
+            String rootId = randomHex(8);
+            long start = request.getTimestamp() * 1_000_000L;
+
+            Map<String, Object> root = span(traceId, rootId, null, request.getMethod() + " " + request.getUri(),
+                    SPAN_KIND_SERVER, start, nanos(request.getTotalMs()));
+            root.put("attributes", List.of(
+                    attribute("http.request.method", request.getMethod()),
+                    attribute("url.path", request.getUri()),
+                    attribute("http.response.status_code", request.getStatus()),
+                    attribute("enduser.id", request.getUser()),
+                    attribute("phase.jwt_ms", request.getJwtMs()),
+                    attribute("phase.mongo_ms", request.getMongoMs()),
+                    attribute("phase.outbound_ms", request.getOutboundMs()),
+                    attribute("phase.serialization_ms", request.getSerializationMs()),
+                    attribute("phase.other_ms", request.getOtherMs()),
+                    attribute("db.command_count", request.getMongoCommandCount())));
+            spans.add(root);
+
+            for (SlowRequest.MongoCommand command : request.getMongoCommands()) {
+                Map<String, Object> child = span(traceId, randomHex(8), rootId, command.getCommand(), SPAN_KIND_CLIENT,
+                        start + nanos(command.getOffsetMs()), nanos(command.getDurationMs()));
+                child.put("attributes", List.of(
+                        attribute("db.system", "mongodb"),
+                        attribute("db.name", command.getDatabase()),
+                        attribute("db.operation", command.getCommand())));
+                spans.add(child);
+            }
+            if (request.getOutboundOffsetMs() >= 0) {
+                spans.add(span(traceId, randomHex(8), rootId, "callApi", SPAN_KIND_CLIENT,
+                        start + nanos(request.getOutboundOffsetMs()), nanos(request.getOutboundMs())));
+            }
+        }
+
+        Map<String, Object> resource = Map.of("attributes", List.of(attribute("service.name", "mdb-spring-boot")));
+        Map<String, Object> scopeSpans = Map.of("scope", Map.of("name", "slow-requests"), "spans", spans);
+        return Map.of("resourceSpans", List.of(Map.of("resource", resource, "scopeSpans", List.of(scopeSpans))));
+    }
+
+    private static Map<String, Object> span(String traceId, String spanId, String parentId, String name, int kind,
+                                            long startNanos, long durationNanos) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", traceId);
+        span.put("spanId", spanId);
+        if (parentId != null) {
+            span.put("parentSpanId", parentId);
+        }
+        span.put("name", name);
+        span.put("kind", kind);
+        // OTLP/JSON encodes 64-bit integers as strings
+        span.put("startTimeUnixNano", String.valueOf(startNanos));
+        span.put("endTimeUnixNano", String.valueOf(startNanos + durationNanos));
+        return span;
+    }
+
+    private static Map<String, Object> attribute(String key, Object value) {
+        Map<String, Object> typed;
+        if (value instanceof Integer || value instanceof Long) {
+            typed = Map.of("intValue", String.valueOf(value));
+        } else if (value instanceof Double) {
+            typed = Map.of("doubleValue", value);
+        } else {
+            typed = Map.of("stringValue", String.valueOf(value));
+        }
+        return Map.of("key", key, "value", typed);
+    }
+
+    private static long nanos(double millis) {
+        return (long) (millis * 1_000_000d);
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HexFormat.of().formatHex(id);
+    }
+}
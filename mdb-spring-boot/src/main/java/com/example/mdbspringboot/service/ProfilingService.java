@@ -0,0 +1,391 @@
+package com.example.mdbspringboot.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.mdbspringboot.util.EndpointEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Time-boxed Java Flight Recorder sessions on the running JVM.
+ *
+ * Only one session runs at a time. Its length is capped by {@code profiling.max-duration-seconds} and
+ * its size by {@code profiling.max-size-mb}, and it uses the JDK "default" settings (designed for
+ * about 1% overhead) with sampling periods that can only be made coarser, not finer. When the session
+ * ends, samples are attributed to endpoints through the {@link EndpointEvent}s recorded on the same
+ * thread and summarized as CPU hot methods, allocation sites and lock contention per endpoint.
+ */
+@Service
+public class ProfilingService {
+
+    public enum Status { RUNNING, DONE, FAILED }
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingService.class);
+    private static final String OTHER = "(no endpoint)";
+    private static final int TOP_N = 10;
+    private static final int KEPT_SESSIONS = 5;
+
+    @Value("${profiling.dir:profiling}")
+    private String profilingDir;
+
+    @Value("${profiling.max-duration-seconds:120}")
+    private long maxDurationSeconds;
+
+    @Value("${profiling.max-size-mb:64}")
+    private long maxSizeMb;
+
+    @Value("${profiling.execution-sample-ms:20}")
+    private long executionSampleMs;
+
+    @Value("${profiling.lock-threshold-ms:10}")
+    private long lockThresholdMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "profiling");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private volatile Session active;
+
+    @PostConstruct
+    public void init() {
+        // Recordings of earlier runs are no longer listed, but count towards KEPT_SESSIONS
+        pruneRecordings();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isRecording() {
+        return active != null;
+    }
+
+    /**
+     * Starts a session lasting {@code seconds}, capped at the configured maximum.
+     *
+     * @throws IllegalStateException if a session is already running
+     */
+    public synchronized Map<String, Object> start(long seconds) throws IOException, ParseException {
+        if (active != null) {
+            throw new IllegalStateException("A profiling session is already running: " + active.id);
+        }
+        long duration = Math.max(1, Math.min(seconds, maxDurationSeconds));
+
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        settings.put("jdk.ExecutionSample#enabled", "true");
+        settings.put("jdk.ExecutionSample#period", Math.max(executionSampleMs, 10) + " ms");
+        settings.put("jdk.ObjectAllocationSample#enabled", "true");
+        settings.put("jdk.JavaMonitorEnter#enabled", "true");
+        settings.put("jdk.JavaMonitorEnter#threshold", Math.max(lockThresholdMs, 1) + " ms");
+        settings.put("jdk.JavaMonitorEnter#stackTrace", "true");
+        settings.put(EndpointEvent.NAME + "#enabled", "true");
+
+        Session session = new Session(UUID.randomUUID().toString(), duration);
+        Files.createDirectories(Paths.get(profilingDir));
+        session.file = Paths.get(profilingDir, session.id + ".jfr");
+
+        Recording recording = new Recording(settings);
+        recording.setName("mdb-spring-boot-" + session.id);
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        // Backstop in case the scheduled stop never runs
+        recording.setDuration(Duration.ofSeconds(duration + 5));
+        recording.start();
+        session.recording = recording;
+
+        sessions.put(session.id, session);
+        active = session;
+        scheduler.schedule(() -> finish(session), duration, TimeUnit.SECONDS);
+        logger.info("Started profiling session {} for {}s", session.id, duration);
+        return session.toMap();
+    }
+
+    public Map<String, Object> get(String id) {
+        return session(id).toMap();
+    }
+
+    /**
+     * The {@code .jfr} file of a finished session.
+     */
+    public Path recordingFile(String id) {
+        Session session = session(id);
+        if (session.status != Status.DONE) {
+            throw new IllegalStateException("Profiling session " + id + " is " + session.status);
+        }
+        return session.file;
+    }
+
+    private Session session(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Profiling session not found: " + id);
+        }
+        return session;
+    }
+
+    private void finish(Session session) {
+        try (Recording recording = session.recording) {
+            recording.stop();
+            recording.dump(session.file);
+            session.summary = summarize(session.file);
+            session.status = Status.DONE;
+            logger.info("Profiling session {} done: {}", session.id, session.file);
+        } catch (Exception e) {
+            logger.error("Profiling session {} failed: {}", session.id, e.getMessage());
+            session.error = e.getMessage();
+            session.status = Status.FAILED;
+        } finally {
+            active = null;
+            session.recording = null;
+            evictOldSessions();
+        }
+    }
+
+    private void evictOldSessions() {
+        List<Session> finished = new ArrayList<>(sessions.values());
+        finished.removeIf(s -> s.status == Status.RUNNING);
+        finished.sort(Comparator.comparingLong((Session s) -> s.startedAt).reversed());
+        for (Session old : finished.subList(Math.min(KEPT_SESSIONS, finished.size()), finished.size())) {
+            sessions.remove(old.id);
+            try {
+                Files.deleteIfExists(old.file);
+            } catch (IOException e) {
+                logger.warn("Could not delete {}: {}", old.file, e.getMessage());
+            }
+        }
+        pruneRecordings();
+    }
+
+    // Keeps the newest KEPT_SESSIONS recordings in profilingDir, including those of earlier runs
+    private void pruneRecordings() {
+        Path dir = Paths.get(profilingDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Session running = active;
+        List<Path> recordings;
+        try (Stream<Path> files = Files.list(dir)) {
+            recordings = new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().endsWith(".jfr"))
+                    .filter(file -> running == null || !file.equals(running.file))
+                    .toList());
+        } catch (IOException e) {
+            logger.warn("Could not list {}: {}", dir, e.getMessage());
+            return;
+        }
+        recordings.sort(Comparator.comparingLong(ProfilingService::lastModified).reversed());
+        for (Path old : recordings.subList(Math.min(KEPT_SESSIONS, recordings.size()), recordings.size())) {
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                logger.warn("Could not delete {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Map<String, Object> summarize(Path file) throws IOException {
+        // First pass: which thread was serving which endpoint, and when
+        Map<Long, List<Span>> spans = new HashMap<>();
+        Map<String, long[]> requests = new HashMap<>();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (event.getEventType().getName().equals(EndpointEvent.NAME) && event.getThread() != null) {
+                    String endpoint = event.getString("endpoint");
+                    spans.computeIfAbsent(event.getThread().getJavaThreadId(), t -> new ArrayList<>())
+                            .add(new Span(event.getStartTime(), event.getEndTime(), endpoint));
+                    long[] stats = requests.computeIfAbsent(endpoint, e -> new long[2]);
+                    stats[0]++;
+                    stats[1] += event.getDuration().toNanos();
+                }
+            }
+        }
+        spans.values().forEach(list -> list.sort(Comparator.comparing(s -> s.start)));
+
+        // Second pass: attribute samples to endpoints
+        Map<String, Map<String, Long>> cpu = new HashMap<>();
+        Map<String, Map<String, Long>> allocations = new HashMap<>();
+        Map<String, Map<String, Long>> locks = new HashMap<>();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        String endpoint = endpointAt(spans, event.getThread("sampledThread"), event.getStartTime());
+                        add(cpu, endpoint, frame(event.getStackTrace(), false), 1);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        String endpoint = endpointAt(spans, event.getThread(), event.getStartTime());
+                        String site = frame(event.getStackTrace(), true) + " [" + event.getClass("objectClass").getName() + "]";
+                        add(allocations, endpoint, site, event.getLong("weight"));
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        String endpoint = endpointAt(spans, event.getThread(), event.getStartTime());
+                        String monitor = event.getClass("monitorClass").getName() + " @ " + frame(event.getStackTrace(), true);
+                        add(locks, endpoint, monitor, event.getDuration().toNanos());
+                    }
+                    default -> { }
+                }
+            }
+        }
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(requests.keySet());
+        names.add(OTHER);
+        for (String endpoint : names) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            long[] stats = requests.get(endpoint);
+            if (stats != null) {
+                summary.put("requests", stats[0]);
+                summary.put("avgMs", stats[1] / 1_000_000d / stats[0]);
+            }
+            summary.put("cpuSamples", top(cpu.get(endpoint), 1));
+            summary.put("allocatedBytes", top(allocations.get(endpoint), 1));
+            summary.put("lockWaitMs", top(locks.get(endpoint), 1_000_000));
+            endpoints.put(endpoint, summary);
+        }
+        return endpoints;
+    }
+
+    private static String endpointAt(Map<Long, List<Span>> spans, RecordedThread thread, Instant time) {
+        if (thread == null) {
+            return OTHER;
+        }
+        List<Span> list = spans.get(thread.getJavaThreadId());
+        if (list == null) {
+            return OTHER;
+        }
+        // Last span starting at or before the sample
+        int low = 0;
+        int high = list.size() - 1;
+        Span match = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (!list.get(mid).start.isAfter(time)) {
+                match = list.get(mid);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return match != null && !match.end.isBefore(time) ? match.endpoint : OTHER;
+    }
+
+    // Top frame, or with skipJdk the first frame outside the JDK, which is more useful for allocations and locks
+    private static String frame(RecordedStackTrace stackTrace, boolean skipJdk) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(unknown)";
+        }
+        RecordedFrame chosen = stackTrace.getFrames().get(0);
+        if (skipJdk) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                    chosen = frame;
+                    break;
+                }
+            }
+        }
+        return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName() + ":" + chosen.getLineNumber();
+    }
+
+    private static void add(Map<String, Map<String, Long>> byEndpoint, String endpoint, String key, long value) {
+        byEndpoint.computeIfAbsent(endpoint, e -> new HashMap<>()).merge(key, value, Long::sum);
+    }
+
+    private static Map<String, Long> top(Map<String, Long> values, long divisor) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (values != null) {
+            values.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(TOP_N)
+                    .forEach(e -> result.put(e.getKey(), e.getValue() / divisor));
+        }
+        return result;
+    }
+
+    private static class Span {
+        final Instant start;
+        final Instant end;
+        final String endpoint;
+
+        Span(Instant start, Instant end, String endpoint) {
+            this.start = start;
+            this.end = end;
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static class Session {
+        final String id;
+        final long durationSeconds;
+        final long startedAt = System.currentTimeMillis();
+        volatile Status status = Status.RUNNING;
+        volatile Recording recording;
+        volatile Path file;
+        volatile Map<String, Object> summary;
+        volatile String error;
+
+        Session(String id, long durationSeconds) {
+            this.id = id;
+            this.durationSeconds = durationSeconds;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("status", status);
+            map.put("startedAt", startedAt);
+            map.put("durationSeconds", durationSeconds);
+            if (error != null) {
+                map.put("error", error);
+            }
+            if (summary != null) {
+                map.put("endpoints", summary);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.mdbspringboot.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows Mongo latency (AIMD).
+ *
+ * Latency samples feed an exponentially weighted moving average. Once per window the limit is
+ * cut by {@code backoff} when the average is above {@code targetLatencyMs}, and raised by one
+ * otherwise, staying within {@code [minLimit, maxLimit]}.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double targetLatencyNanos;
+    private final double backoff;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private double averageLatencyNanos;
+    private long windowStart = System.nanoTime();
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long targetLatencyMs, double backoff, long windowMs) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyMs * 1_000_000d;
+        this.backoff = backoff;
+        this.windowNanos = windowMs * 1_000_000L;
+        this.limit = maxLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized void onLatency(long latencyNanos) {
+        averageLatencyNanos = averageLatencyNanos == 0
+                ? latencyNanos
+                : averageLatencyNanos + EWMA_WEIGHT * (latencyNanos - averageLatencyNanos);
+
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos) {
+            return;
+        }
+        windowStart = now;
+        if (averageLatencyNanos > targetLatencyNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoff));
+        } else if (limit < maxLimit) {
+            limit++;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getAverageLatencyMs() {
+        return averageLatencyNanos / 1_000_000d;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.mdbspringboot.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Durability tier for all writes made while handling a controller method. Can be overridden per
+ * endpoint with {@code mongo.durability.endpoints}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Durability {
+
+    DurabilityTier value();
+}
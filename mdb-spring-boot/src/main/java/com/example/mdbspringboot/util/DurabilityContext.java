@@ -0,0 +1,23 @@
+package com.example.mdbspringboot.util;
+
+/**
+ * Durability tier selected for writes on the current thread, if any. Set per endpoint by
+ * {@link com.example.mdbspringboot.config.DurabilityInterceptor}, or directly around a block of
+ * writes; when unset, the per-operation default applies.
+ */
+public class DurabilityContext {
+
+    private static final ThreadLocal<DurabilityTier> CURRENT = new ThreadLocal<>();
+
+    public static DurabilityTier get() {
+        return CURRENT.get();
+    }
+
+    public static void set(DurabilityTier tier) {
+        CURRENT.set(tier);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.mdbspringboot.util;
+
+import com.mongodb.WriteConcern;
+
+/**
+ * Write durability trade-offs, from fastest to safest.
+ */
+public enum DurabilityTier {
+
+    /** {@code w:0}: the driver does not wait for the server at all. For bulk imports and telemetry-like updates. */
+    FIRE_AND_FORGET(WriteConcern.UNACKNOWLEDGED),
+
+    /** {@code w:1}: acknowledged by the primary, may be rolled back on failover. */
+    ACKNOWLEDGED(WriteConcern.W1),
+
+    /** {@code w:majority, j:true}: journaled on a majority of members. For user-visible creates and deletes. */
+    MAJORITY(WriteConcern.MAJORITY.withJournal(true));
+
+    private final WriteConcern writeConcern;
+
+    DurabilityTier(WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.mdbspringboot.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the execution of a controller method, used to attribute samples taken on the
+ * same thread to that endpoint.
+ */
+@Name(EndpointEvent.NAME)
+@Label("Endpoint")
+@Category("mdb-spring-boot")
+@Description("Execution of a controller method")
+@StackTrace(false) // Committed once per request; attribution only needs the thread and time span
+public class EndpointEvent extends Event {
+
+    public static final String NAME = "com.example.mdbspringboot.Endpoint";
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("HTTP Method")
+    public String httpMethod;
+
+    @Label("Status")
+    public int status;
+}
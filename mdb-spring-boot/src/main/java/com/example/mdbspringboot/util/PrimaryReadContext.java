@@ -0,0 +1,23 @@
+package com.example.mdbspringboot.util;
+
+/**
+ * Whether reads on the current thread must go to the primary instead of the secondaries that serve
+ * read-only endpoints. Set by {@link com.example.mdbspringboot.config.ResponseCacheFilter} while it
+ * fills an entry, so that a lagging secondary is never cached.
+ */
+public class PrimaryReadContext {
+
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+
+    public static boolean isRequired() {
+        return Boolean.TRUE.equals(REQUIRED.get());
+    }
+
+    public static void require() {
+        REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        REQUIRED.remove();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.mdbspringboot.util;
+
+import java.time.Duration;
+
+import com.mongodb.MongoExecutionTimeoutException;
+
+/**
+ * Deadline of the request being handled on the current thread.
+ *
+ * Set by {@link com.example.mdbspringboot.config.DeadlineFilter} and consulted before
+ * every Mongo operation and outbound call, which get the remaining budget as their timeout.
+ * When no deadline is set (e.g. the startup runner) there is no limit.
+ */
+public class RequestDeadline {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static final ThreadLocal<long[]> DEADLINE = ThreadLocal.withInitial(() -> new long[] { NONE });
+
+    public static void start(long budgetMs) {
+        DEADLINE.get()[0] = System.nanoTime() + budgetMs * 1_000_000L;
+    }
+
+    public static void clear() {
+        DEADLINE.get()[0] = NONE;
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get()[0] != NONE;
+    }
+
+    /**
+     * Remaining budget in milliseconds, or {@link Long#MAX_VALUE} if no deadline is set.
+     * Never returns less than 0.
+     */
+    public static long remainingMillis() {
+        long deadline = DEADLINE.get()[0];
+        if (deadline == NONE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (deadline - System.nanoTime()) / 1_000_000L);
+    }
+
+    /**
+     * Remaining budget for an operation, failing fast if it has already been spent.
+     */
+    public static long checkRemainingMillis(String operation) {
+        long remaining = remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded before " + operation);
+        }
+        return remaining;
+    }
+
+    /**
+     * Remaining budget as a Mongo {@code maxTimeMS}, or {@code null} when no deadline is set.
+     */
+    public static Duration maxTime(String operation) {
+        if (!isSet()) {
+            return null;
+        }
+        return Duration.ofMillis(checkRemainingMillis(operation));
+    }
+
+    /**
+     * Maps a Mongo {@code maxTimeMS} expiry (possibly wrapped by Spring's exception translation)
+     * to {@link DeadlineExceededException}; any other exception is returned unchanged.
+     */
+    public static RuntimeException translate(RuntimeException e, String operation) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoExecutionTimeoutException) {
+                return new DeadlineExceededException("Deadline exceeded during " + operation, e);
+            }
+        }
+        return e;
+    }
+}
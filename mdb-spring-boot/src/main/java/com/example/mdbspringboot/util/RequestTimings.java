@@ -0,0 +1,115 @@
+package com.example.mdbspringboot.util;
+
+import java.util.Arrays;
+
+/**
+ * Per-phase timing of the request running on the current thread.
+ *
+ * One instance per thread is reused across requests and only holds primitives and references to
+ * strings that already exist, so recording costs no allocation. A snapshot is only taken, by
+ * {@link com.example.mdbspringboot.config.RequestTimingFilter}, for requests over the slow threshold.
+ */
+public class RequestTimings {
+
+    public enum Phase { JWT, MONGO, OUTBOUND, SERIALIZATION }
+
+    public static final int MAX_COMMANDS = 32;
+
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private boolean active;
+    private long startNanos;
+    private long startMillis;
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    private int commandCount;
+    private final String[] commandNames = new String[MAX_COMMANDS];
+    private final String[] commandDatabases = new String[MAX_COMMANDS];
+    private final long[] commandOffsetNanos = new long[MAX_COMMANDS];
+    private final long[] commandNanos = new long[MAX_COMMANDS];
+
+    private long outboundOffsetNanos = -1;
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public void begin() {
+        active = true;
+        startNanos = System.nanoTime();
+        startMillis = System.currentTimeMillis();
+        Arrays.fill(phaseNanos, 0);
+        Arrays.fill(commandNames, null);
+        Arrays.fill(commandDatabases, null);
+        commandCount = 0;
+        outboundOffsetNanos = -1;
+    }
+
+    public void end() {
+        active = false;
+    }
+
+    public static void record(Phase phase, long startNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.phaseNanos[phase.ordinal()] += System.nanoTime() - startNanos;
+            if (phase == Phase.OUTBOUND && timings.outboundOffsetNanos < 0) {
+                timings.outboundOffsetNanos = startNanos - timings.startNanos;
+            }
+        }
+    }
+
+    /**
+     * Records a Mongo command; commands beyond {@link #MAX_COMMANDS} still count towards the phase total.
+     */
+    public static void recordMongo(String commandName, String database, long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (!timings.active) {
+            return;
+        }
+        timings.phaseNanos[Phase.MONGO.ordinal()] += elapsedNanos;
+        int i = timings.commandCount++;
+        if (i < MAX_COMMANDS) {
+            timings.commandNames[i] = commandName;
+            timings.commandDatabases[i] = database;
+            timings.commandOffsetNanos[i] = System.nanoTime() - elapsedNanos - timings.startNanos;
+            timings.commandNanos[i] = elapsedNanos;
+        }
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    public String getCommandName(int i) {
+        return commandNames[i];
+    }
+
+    public String getCommandDatabase(int i) {
+        return commandDatabases[i];
+    }
+
+    public long getCommandOffsetNanos(int i) {
+        return commandOffsetNanos[i];
+    }
+
+    public long getCommandNanos(int i) {
+        return commandNanos[i];
+    }
+
+    public long getOutboundOffsetNanos() {
+        return outboundOffsetNanos;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.mdbspringboot.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded response bodies kept off-heap in direct buffers, with a gzipped copy for bodies large enough
+ * to be compressed, so that serving a hit neither allocates nor serializes anything.
+ *
+ * Entries belong to a scope, e.g. one user's grocery list. {@link #invalidate(String)} gives the scope
+ * a new generation, which makes its entries stale; a response computed under an older generation is
+ * never stored, so a read racing with a write cannot put stale bytes back. Entries can also expire after
+ * a TTL, for data that changes without going through this application. Stale and expired entries are
+ * dropped when they are next read or when the cache is over {@code maxBytes}, at which point the least
+ * recently used entries are evicted too; their memory is released when the buffers are collected.
+ *
+ * Hits and writes take no lock. Generations come from one counter, so a scope that is forgotten once it
+ * has no entries, and created again later, never gets a generation an in-flight response was computed under.
+ */
+public class ResponseCache {
+
+    public record Entry(String scope, long generation, long expiresAtNanos, String contentType,
+                        ByteBuffer body, ByteBuffer gzipped) {
+
+        int size() {
+            return body.capacity() + (gzipped != null ? gzipped.capacity() : 0);
+        }
+    }
+
+    private static final class Slot {
+        final Entry entry;
+        // Approximate recency for eviction; written on every hit without any ordering
+        volatile long lastUsedNanos = System.nanoTime();
+
+        Slot(Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private record Candidate(String key, Slot slot, long lastUsedNanos) {
+    }
+
+    // Scopes without entries are forgotten once there are this many more scopes than entries
+    private static final int SCOPE_SLACK = 1024;
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final int gzipMinBytes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final Map<String, Slot> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param gzipMinBytes bodies at least this large also get a gzipped copy; negative to never compress
+     */
+    public ResponseCache(long maxBytes, int maxEntryBytes, int gzipMinBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    /**
+     * Current generation of a scope; pass it to {@link #put} once the response is computed.
+     */
+    public long generation(String scope) {
+        Long generation = generations.get(scope);
+        return generation != null ? generation : generations.computeIfAbsent(scope, s -> sequence.incrementAndGet());
+    }
+
+    public Entry get(String key) {
+        Slot slot = entries.get(key);
+        if (slot == null || !isLive(slot.entry)) {
+            if (slot != null) {
+                remove(key, slot);
+            }
+            misses.increment();
+            return null;
+        }
+        slot.lastUsedNanos = System.nanoTime();
+        hits.increment();
+        return slot.entry;
+    }
+
+    /**
+     * Stores a response unless its scope was invalidated since {@code generation} was read.
+     *
+     * @param ttlNanos zero for no expiry
+     * @return false if it was not stored
+     */
+    public boolean put(String key, String scope, long generation, long ttlNanos, String contentType, byte[] body) {
+        if (body.length > maxEntryBytes || !isCurrent(scope, generation)) {
+            return false;
+        }
+        ByteBuffer gzipped = gzipMinBytes >= 0 && body.length >= gzipMinBytes ? direct(gzip(body)) : null;
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+        Slot slot = new Slot(new Entry(scope, generation, expiresAt, contentType, direct(body), gzipped));
+
+        Slot previous = entries.put(key, slot);
+        totalBytes.addAndGet(slot.entry.size() - (previous != null ? previous.entry.size() : 0));
+        // An invalidation that ran meanwhile left this entry stale; drop it rather than wait for a read
+        if (!isCurrent(scope, generation)) {
+            remove(key, slot);
+            return false;
+        }
+        if (totalBytes.get() > maxBytes) {
+            sweep();
+        }
+        return true;
+    }
+
+    public void invalidate(String scope) {
+        generations.put(scope, sequence.incrementAndGet());
+        if (generations.size() > 2 * entries.size() + SCOPE_SLACK) {
+            sweep();
+        }
+    }
+
+    public void invalidateAll() {
+        // Every generation handed out so far becomes stale
+        generations.clear();
+        entries.forEach(this::remove);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getBytes() {
+        return totalBytes.get();
+    }
+
+    public int getEntries() {
+        return entries.size();
+    }
+
+    private boolean isCurrent(String scope, long generation) {
+        Long current = generations.get(scope);
+        return current != null && current == generation;
+    }
+
+    private boolean isLive(Entry entry) {
+        return isCurrent(entry.scope(), entry.generation())
+                && (entry.expiresAtNanos() == 0 || System.nanoTime() - entry.expiresAtNanos() < 0);
+    }
+
+    private void remove(String key, Slot slot) {
+        if (entries.remove(key, slot)) {
+            totalBytes.addAndGet(-slot.entry.size());
+        }
+    }
+
+    /**
+     * Drops stale and expired entries, then, while over {@code maxBytes}, the least recently used ones
+     * down to 90% of it so that the next few writes don't sweep again, and forgets scopes without
+     * entries. One thread sweeps at a time; the others carry on.
+     */
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Candidate> live = new ArrayList<>(entries.size());
+            entries.forEach((key, slot) -> {
+                if (isLive(slot.entry)) {
+                    // Recency is copied so that hits during the sort cannot reorder it
+                    live.add(new Candidate(key, slot, slot.lastUsedNanos));
+                } else {
+                    remove(key, slot);
+                }
+            });
+            if (totalBytes.get() > maxBytes) {
+                live.sort(Comparator.comparingLong(Candidate::lastUsedNanos));
+                long target = maxBytes - maxBytes / 10;
+                for (Iterator<Candidate> it = live.iterator(); totalBytes.get() > target && it.hasNext(); ) {
+                    Candidate eldest = it.next();
+                    remove(eldest.key(), eldest.slot());
+                    evictions.increment();
+                    it.remove();
+                }
+            }
+            Set<String> scopes = new HashSet<>();
+            live.forEach(candidate -> scopes.add(candidate.slot().entry.scope()));
+            generations.keySet().retainAll(scopes);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
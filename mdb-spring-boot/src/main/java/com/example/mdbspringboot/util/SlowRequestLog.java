@@ -0,0 +1,53 @@
+package com.example.mdbspringboot.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.example.mdbspringboot.model.SlowRequest;
+
+/**
+ * Lock-free ring buffer holding the most recent slow requests. Writers claim a slot with a single
+ * atomic increment and overwrite whatever was there.
+ */
+public class SlowRequestLog {
+
+    private final AtomicReferenceArray<SlowRequest> slots;
+    private final AtomicLong cursor = new AtomicLong();
+
+    public SlowRequestLog(int capacity) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    public void add(SlowRequest request) {
+        int slot = (int) (cursor.getAndIncrement() % slots.length());
+        slots.set(slot, request);
+    }
+
+    /**
+     * Requests currently in the buffer, slowest first.
+     */
+    public List<SlowRequest> slowest() {
+        List<SlowRequest> result = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            SlowRequest request = slots.get(i);
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        result.sort(Comparator.comparingDouble(SlowRequest::getTotalMs).reversed());
+        return result;
+    }
+
+    public long getRecorded() {
+        return cursor.get();
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo;
+
+/**
+ * Fault injection settings. Rates are probabilities in {@code [0, 1]} summing to at most 1, and are
+ * checked in the order reset, timeout, error; a request that hits none of them gets the sampled latency
+ * and a normal response. {@code latencySpread} is milliseconds or a sigma depending on the
+ * distribution (see {@link LatencyDistribution}).
+ */
+public class FaultConfig {
+
+    private LatencyDistribution latencyDistribution = LatencyDistribution.NONE;
+    private double latencyMeanMs;
+    private double latencySpread;
+    private long latencyMaxMs = 60_000;
+    private double errorRate;
+    private int errorStatus = 500;
+    private double timeoutRate;
+    private long timeoutMs = 30_000;
+    private double resetRate;
+
+    /**
+     * @throws IllegalArgumentException if a rate is outside {@code [0, 1]} or the rates sum to more than 1
+     */
+    public void validate() {
+        checkRate("errorRate", errorRate);
+        checkRate("timeoutRate", timeoutRate);
+        checkRate("resetRate", resetRate);
+        if (errorRate + timeoutRate + resetRate > 1) {
+            throw new IllegalArgumentException("errorRate + timeoutRate + resetRate must be at most 1");
+        }
+        if (latencySpread < 0) {
+            throw new IllegalArgumentException("latencySpread must not be negative");
+        }
+    }
+
+    private static void checkRate(String name, double rate) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException(name + " must be in [0, 1]: " + rate);
+        }
+    }
+
+    public FaultConfig copy() {
+        FaultConfig copy = new FaultConfig();
+        copy.latencyDistribution = latencyDistribution;
+        copy.latencyMeanMs = latencyMeanMs;
+        copy.latencySpread = latencySpread;
+        copy.latencyMaxMs = latencyMaxMs;
+        copy.errorRate = errorRate;
+        copy.errorStatus = errorStatus;
+        copy.timeoutRate = timeoutRate;
+        copy.timeoutMs = timeoutMs;
+        copy.resetRate = resetRate;
+        return copy;
+    }
+
+    public LatencyDistribution getLatencyDistribution() {
+        return latencyDistribution;
+    }
+
+    public void setLatencyDistribution(LatencyDistribution latencyDistribution) {
+        this.latencyDistribution = latencyDistribution;
+    }
+
+    public double getLatencyMeanMs() {
+        return latencyMeanMs;
+    }
+
+    public void setLatencyMeanMs(double latencyMeanMs) {
+        this.latencyMeanMs = latencyMeanMs;
+    }
+
+    public double getLatencySpread() {
+        return latencySpread;
+    }
+
+    public void setLatencySpread(double latencySpread) {
+        this.latencySpread = latencySpread;
+    }
+
+    public long getLatencyMaxMs() {
+        return latencyMaxMs;
+    }
+
+    public void setLatencyMaxMs(long latencyMaxMs) {
+        this.latencyMaxMs = latencyMaxMs;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public void setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+    }
+
+    public double getTimeoutRate() {
+        return timeoutRate;
+    }
+
+    public void setTimeoutRate(double timeoutRate) {
+        this.timeoutRate = timeoutRate;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public double getResetRate() {
+        return resetRate;
+    }
+
+    public void setResetRate(double resetRate) {
+        this.resetRate = resetRate;
+    }
+}
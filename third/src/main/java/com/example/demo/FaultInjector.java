@@ -0,0 +1,150 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the current {@link FaultConfig} to stub requests and counts what happened to them.
+ */
+@Component
+public class FaultInjector {
+
+    public enum Outcome { OK, ERROR, TIMEOUT, RESET }
+
+    private volatile FaultConfig config;
+
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final Map<Outcome, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder injectedLatencyMs = new LongAdder();
+
+    public FaultInjector(@Value("${stub.latency.distribution:NONE}") LatencyDistribution distribution,
+                         @Value("${stub.latency.mean-ms:0}") double meanMs,
+                         @Value("${stub.latency.spread:0}") double spread,
+                         @Value("${stub.latency.max-ms:60000}") long maxMs,
+                         @Value("${stub.error.rate:0}") double errorRate,
+                         @Value("${stub.error.status:500}") int errorStatus,
+                         @Value("${stub.timeout.rate:0}") double timeoutRate,
+                         @Value("${stub.timeout.ms:30000}") long timeoutMs,
+                         @Value("${stub.reset.rate:0}") double resetRate) {
+        FaultConfig initial = new FaultConfig();
+        initial.setLatencyDistribution(distribution);
+        initial.setLatencyMeanMs(meanMs);
+        initial.setLatencySpread(spread);
+        initial.setLatencyMaxMs(maxMs);
+        initial.setErrorRate(errorRate);
+        initial.setErrorStatus(errorStatus);
+        initial.setTimeoutRate(timeoutRate);
+        initial.setTimeoutMs(timeoutMs);
+        initial.setResetRate(resetRate);
+        initial.validate();
+        this.config = initial;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    public FaultConfig getConfig() {
+        return config.copy();
+    }
+
+    public void setConfig(FaultConfig config) {
+        this.config = config.copy();
+    }
+
+    /**
+     * Sleeps for the sampled latency and, depending on the configured rates, fails the request.
+     *
+     * @return {@link Outcome#OK} if the caller should write its normal response; for any other
+     *         outcome the response has already been handled
+     * @throws SimulatedConnectionReset to abort a half-written response
+     */
+    public Outcome apply(String route, HttpServletResponse response) throws IOException {
+        FaultConfig current = config;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        requests.computeIfAbsent(route, r -> new LongAdder()).increment();
+
+        double roll = random.nextDouble();
+        if (roll < current.getResetRate()) {
+            outcomes.get(Outcome.RESET).increment();
+            // Promise a body that never arrives, then abort so the container drops the connection
+            response.setContentLength(4096);
+            response.getOutputStream().write("{\"partial\":".getBytes(StandardCharsets.UTF_8));
+            response.flushBuffer();
+            throw new SimulatedConnectionReset();
+        }
+        roll -= current.getResetRate();
+
+        if (roll < current.getTimeoutRate()) {
+            outcomes.get(Outcome.TIMEOUT).increment();
+            sleep(current.getTimeoutMs());
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Injected timeout");
+            return Outcome.TIMEOUT;
+        }
+        roll -= current.getTimeoutRate();
+
+        long latency = Math.min(current.getLatencyMaxMs(), current.getLatencyDistribution()
+                .sampleMillis(current.getLatencyMeanMs(), current.getLatencySpread(), random));
+        injectedLatencyMs.add(latency);
+        sleep(latency);
+
+        if (roll < current.getErrorRate()) {
+            outcomes.get(Outcome.ERROR).increment();
+            response.sendError(current.getErrorStatus(), "Injected error");
+            return Outcome.ERROR;
+        }
+
+        outcomes.get(Outcome.OK).increment();
+        return Outcome.OK;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Long> perRoute = new LinkedHashMap<>();
+        requests.forEach((route, count) -> perRoute.put(route, count.sum()));
+        Map<String, Long> perOutcome = new LinkedHashMap<>();
+        for (Outcome outcome : Outcome.values()) {
+            perOutcome.put(outcome.name(), outcomes.get(outcome).sum());
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", perRoute);
+        stats.put("outcomes", perOutcome);
+        stats.put("injectedLatencyMs", injectedLatencyMs.sum());
+        return stats;
+    }
+
+    public void resetStats() {
+        requests.clear();
+        outcomes.values().forEach(LongAdder::reset);
+        injectedLatencyMs.reset();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Thrown after a response has been partially written; the container then closes the connection
+     * without completing it, which clients see as a reset/premature end of stream.
+     */
+    public static class SimulatedConnectionReset extends RuntimeException {
+        public SimulatedConnectionReset() {
+            super("Simulated connection reset", null, false, false);
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.demo;
 
+import java.io.IOException;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class HelloController {
 
+    @Autowired
+    private FaultInjector faultInjector;
+
     @GetMapping("/hello")
-    public String hello() {
-        System.out.println("I am been called ..." + String.valueOf(System.currentTimeMillis()));
+    public String hello(HttpServletResponse response) throws IOException {
+        if (faultInjector.apply("/hello", response) != FaultInjector.Outcome.OK) {
+            return null;
+        }
         return "Hello, World!";
     }
 }
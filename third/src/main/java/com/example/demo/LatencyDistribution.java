@@ -0,0 +1,62 @@
+package com.example.demo;
+
+import java.util.Random;
+
+/**
+ * Shapes of injected latency. {@code mean} is in milliseconds. {@code spread} is in milliseconds for
+ * UNIFORM and NORMAL, but the dimensionless sigma for LOGNORMAL (e.g. 0.8); the others ignore it.
+ */
+public enum LatencyDistribution {
+
+    /** No added latency. */
+    NONE {
+        @Override
+        double sample(double mean, double spread, Random random) {
+            return 0;
+        }
+    },
+    /** Always {@code mean}. */
+    FIXED {
+        @Override
+        double sample(double mean, double spread, Random random) {
+            return mean;
+        }
+    },
+    /** Uniform in {@code [mean - spread, mean + spread]}. */
+    UNIFORM {
+        @Override
+        double sample(double mean, double spread, Random random) {
+            return mean - spread + random.nextDouble() * 2 * spread;
+        }
+    },
+    /** Normal with standard deviation {@code spread}. */
+    NORMAL {
+        @Override
+        double sample(double mean, double spread, Random random) {
+            return mean + random.nextGaussian() * spread;
+        }
+    },
+    /** Exponential with the given mean; {@code spread} is ignored. */
+    EXPONENTIAL {
+        @Override
+        double sample(double mean, double spread, Random random) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+    },
+    /**
+     * Log-normal with median {@code mean} and shape (sigma) {@code spread}: mostly fast with a long tail,
+     * which is what real dependencies tend to look like.
+     */
+    LOGNORMAL {
+        @Override
+        double sample(double mean, double spread, Random random) {
+            return mean * Math.exp(random.nextGaussian() * spread);
+        }
+    };
+
+    abstract double sample(double mean, double spread, Random random);
+
+    public long sampleMillis(double mean, double spread, Random random) {
+        return Math.max(0, Math.round(sample(mean, spread, random)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Stand-in for the remote storage service ({@code sp.storage.uri}) called by mdb-spring-boot,
+ * with configurable latency and fault injection.
+ */
+@RestController
+public class StubController {
+
+    @Autowired
+    private FaultInjector faultInjector;
+
+    /**
+     * GET /vi/health
+     * Same shape as the real storage service health response.
+     */
+    @GetMapping("/vi/health")
+    public Map<String, Object> health(HttpServletResponse response) throws IOException {
+        if (faultInjector.apply("/vi/health", response) != FaultInjector.Outcome.OK) {
+            return null;
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("responseCode", 0);
+        status.put("responseDesc", "success");
+        status.put("timestamp", System.currentTimeMillis());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("responseStatusType", status);
+        body.put("body", "ok");
+        return body;
+    }
+
+    /**
+     * GET /stub/config
+     * Returns the current fault injection settings.
+     */
+    @GetMapping("/stub/config")
+    public FaultConfig getConfig() {
+        return faultInjector.getConfig();
+    }
+
+    /**
+     * PUT /stub/config
+     * Replaces the fault injection settings, e.g.
+     * {"latencyDistribution":"LOGNORMAL","latencyMeanMs":50,"latencySpread":0.8,"errorRate":0.05}
+     * 400 when the rates are out of range.
+     */
+    @PutMapping("/stub/config")
+    public ResponseEntity<?> setConfig(@RequestBody FaultConfig config) {
+        try {
+            config.validate();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        faultInjector.setConfig(config);
+        return ResponseEntity.ok(faultInjector.getConfig());
+    }
+
+    /**
+     * GET /stub/stats
+     * Request counters per route and per outcome.
+     */
+    @GetMapping("/stub/stats")
+    public Map<String, Object> stats() {
+        return faultInjector.stats();
+    }
+
+    /**
+     * DELETE /stub/stats
+     * Resets the counters.
+     */
+    @DeleteMapping("/stub/stats")
+    public Map<String, Object> resetStats() {
+        faultInjector.resetStats();
+        return faultInjector.stats();
+    }
+}